@@ -4,12 +4,18 @@ import com.grocify.entity.Product;
 import com.grocify.entity.User;
 import com.grocify.repository.ProductRepository;
 import com.grocify.repository.UserRepository;
+import com.grocify.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
+@Order(0)
 public class DataInitializer implements CommandLineRunner {
 
     @Autowired
@@ -18,6 +24,9 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProductService productService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -31,6 +40,8 @@ public class DataInitializer implements CommandLineRunner {
         // Only initialize if no products exist
         if (productRepository.count() == 0) {
             initializeProducts();
+            // Products were written straight through the repository
+            productService.reloadCatalog();
         }
     }
 
@@ -57,6 +68,8 @@ public class DataInitializer implements CommandLineRunner {
     }
 
     private void initializeProducts() {
+        List<Product> products = new ArrayList<>();
+
         // Fruits
         Product product1 = new Product();
         product1.setName("Organic Bananas (1kg)");
@@ -65,7 +78,7 @@ public class DataInitializer implements CommandLineRunner {
         product1.setDescription("Fresh organic yellow bananas, perfect for smoothies and snacks");
         product1.setCategory("Fruits");
         product1.setAvailable(true);
-        productRepository.save(product1);
+        products.add(product1);
 
         Product product2 = new Product();
         product2.setName("Red Apples (1kg)");
@@ -74,7 +87,7 @@ public class DataInitializer implements CommandLineRunner {
         product2.setDescription("Crisp red apples, great for eating fresh or baking");
         product2.setCategory("Fruits");
         product2.setAvailable(true);
-        productRepository.save(product2);
+        products.add(product2);
 
         Product product3 = new Product();
         product3.setName("Sweet Oranges (1kg)");
@@ -83,7 +96,7 @@ public class DataInitializer implements CommandLineRunner {
         product3.setDescription("Sweet and juicy oranges, rich in vitamin C");
         product3.setCategory("Fruits");
         product3.setAvailable(true);
-        productRepository.save(product3);
+        products.add(product3);
 
         Product product4 = new Product();
         product4.setName("Fresh Grapes (500g)");
@@ -92,7 +105,7 @@ public class DataInitializer implements CommandLineRunner {
         product4.setDescription("Fresh green grapes, perfect for snacking");
         product4.setCategory("Fruits");
         product4.setAvailable(true);
-        productRepository.save(product4);
+        products.add(product4);
 
         Product product5 = new Product();
         product5.setName("Strawberries (250g)");
@@ -101,7 +114,7 @@ public class DataInitializer implements CommandLineRunner {
         product5.setDescription("Sweet and fresh strawberries");
         product5.setCategory("Fruits");
         product5.setAvailable(true);
-        productRepository.save(product5);
+        products.add(product5);
 
         Product product6 = new Product();
         product6.setName("Mangoes (1kg)");
@@ -110,7 +123,7 @@ public class DataInitializer implements CommandLineRunner {
         product6.setDescription("Sweet and juicy mangoes, perfect for summer");
         product6.setCategory("Fruits");
         product6.setAvailable(true);
-        productRepository.save(product6);
+        products.add(product6);
 
         Product product7 = new Product();
         product7.setName("Pineapple (1kg)");
@@ -119,7 +132,7 @@ public class DataInitializer implements CommandLineRunner {
         product7.setDescription("Fresh tropical pineapple");
         product7.setCategory("Fruits");
         product7.setAvailable(true);
-        productRepository.save(product7);
+        products.add(product7);
 
         Product product8 = new Product();
         product8.setName("Kiwi (6 pieces)");
@@ -128,7 +141,7 @@ public class DataInitializer implements CommandLineRunner {
         product8.setDescription("Fresh kiwi fruits, rich in vitamin C");
         product8.setCategory("Fruits");
         product8.setAvailable(true);
-        productRepository.save(product8);
+        products.add(product8);
 
         Product product9 = new Product();
         product9.setName("Pomegranate (500g)");
@@ -137,7 +150,7 @@ public class DataInitializer implements CommandLineRunner {
         product9.setDescription("Fresh pomegranate, antioxidant rich");
         product9.setCategory("Fruits");
         product9.setAvailable(true);
-        productRepository.save(product9);
+        products.add(product9);
 
         Product product10 = new Product();
         product10.setName("Avocado (3 pieces)");
@@ -146,7 +159,7 @@ public class DataInitializer implements CommandLineRunner {
         product10.setDescription("Ripe avocados, perfect for guacamole");
         product10.setCategory("Fruits");
         product10.setAvailable(true);
-        productRepository.save(product10);
+        products.add(product10);
 
         // Vegetables
         Product product11 = new Product();
@@ -156,7 +169,7 @@ public class DataInitializer implements CommandLineRunner {
         product11.setDescription("Fresh red tomatoes, perfect for cooking");
         product11.setCategory("Vegetables");
         product11.setAvailable(true);
-        productRepository.save(product11);
+        products.add(product11);
 
         Product product12 = new Product();
         product12.setName("Onions (1kg)");
@@ -165,7 +178,7 @@ public class DataInitializer implements CommandLineRunner {
         product12.setDescription("Fresh onions for cooking");
         product12.setCategory("Vegetables");
         product12.setAvailable(true);
-        productRepository.save(product12);
+        products.add(product12);
 
         Product product13 = new Product();
         product13.setName("Potatoes (2kg)");
@@ -174,7 +187,7 @@ public class DataInitializer implements CommandLineRunner {
         product13.setDescription("Fresh potatoes, great for various dishes");
         product13.setCategory("Vegetables");
         product13.setAvailable(true);
-        productRepository.save(product13);
+        products.add(product13);
 
         Product product14 = new Product();
         product14.setName("Carrots (1kg)");
@@ -183,7 +196,7 @@ public class DataInitializer implements CommandLineRunner {
         product14.setDescription("Fresh orange carrots, rich in vitamins");
         product14.setCategory("Vegetables");
         product14.setAvailable(true);
-        productRepository.save(product14);
+        products.add(product14);
 
         Product product15 = new Product();
         product15.setName("Spinach (250g)");
@@ -192,7 +205,7 @@ public class DataInitializer implements CommandLineRunner {
         product15.setDescription("Fresh green spinach leaves");
         product15.setCategory("Vegetables");
         product15.setAvailable(true);
-        productRepository.save(product15);
+        products.add(product15);
 
         Product product16 = new Product();
         product16.setName("Broccoli (500g)");
@@ -201,7 +214,7 @@ public class DataInitializer implements CommandLineRunner {
         product16.setDescription("Fresh green broccoli, rich in nutrients");
         product16.setCategory("Vegetables");
         product16.setAvailable(true);
-        productRepository.save(product16);
+        products.add(product16);
 
         Product product17 = new Product();
         product17.setName("Bell Peppers (500g)");
@@ -210,7 +223,7 @@ public class DataInitializer implements CommandLineRunner {
         product17.setDescription("Colorful bell peppers, perfect for salads");
         product17.setCategory("Vegetables");
         product17.setAvailable(true);
-        productRepository.save(product17);
+        products.add(product17);
 
         Product product18 = new Product();
         product18.setName("Cucumber (500g)");
@@ -219,7 +232,7 @@ public class DataInitializer implements CommandLineRunner {
         product18.setDescription("Fresh cucumbers, perfect for salads");
         product18.setCategory("Vegetables");
         product18.setAvailable(true);
-        productRepository.save(product18);
+        products.add(product18);
 
         Product product19 = new Product();
         product19.setName("Cauliflower (1kg)");
@@ -228,7 +241,7 @@ public class DataInitializer implements CommandLineRunner {
         product19.setDescription("Fresh white cauliflower");
         product19.setCategory("Vegetables");
         product19.setAvailable(true);
-        productRepository.save(product19);
+        products.add(product19);
 
         Product product20 = new Product();
         product20.setName("Sweet Corn (500g)");
@@ -237,7 +250,7 @@ public class DataInitializer implements CommandLineRunner {
         product20.setDescription("Fresh sweet corn on the cob");
         product20.setCategory("Vegetables");
         product20.setAvailable(true);
-        productRepository.save(product20);
+        products.add(product20);
 
         // Dairy & Eggs
         Product product21 = new Product();
@@ -247,7 +260,7 @@ public class DataInitializer implements CommandLineRunner {
         product21.setDescription("Fresh whole milk, perfect for drinking and cooking");
         product21.setCategory("Dairy & Eggs");
         product21.setAvailable(true);
-        productRepository.save(product21);
+        products.add(product21);
 
         Product product22 = new Product();
         product22.setName("Cheddar Cheese (200g)");
@@ -256,7 +269,7 @@ public class DataInitializer implements CommandLineRunner {
         product22.setDescription("Fresh cheddar cheese");
         product22.setCategory("Dairy & Eggs");
         product22.setAvailable(true);
-        productRepository.save(product22);
+        products.add(product22);
 
         Product product23 = new Product();
         product23.setName("Natural Yogurt (500g)");
@@ -265,7 +278,7 @@ public class DataInitializer implements CommandLineRunner {
         product23.setDescription("Natural yogurt, great for breakfast");
         product23.setCategory("Dairy & Eggs");
         product23.setAvailable(true);
-        productRepository.save(product23);
+        products.add(product23);
 
         Product product24 = new Product();
         product24.setName("Butter (250g)");
@@ -274,7 +287,7 @@ public class DataInitializer implements CommandLineRunner {
         product24.setDescription("Fresh butter for cooking and baking");
         product24.setCategory("Dairy & Eggs");
         product24.setAvailable(true);
-        productRepository.save(product24);
+        products.add(product24);
 
         Product product25 = new Product();
         product25.setName("Fresh Eggs (12 pieces)");
@@ -283,7 +296,7 @@ public class DataInitializer implements CommandLineRunner {
         product25.setDescription("Fresh farm eggs");
         product25.setCategory("Dairy & Eggs");
         product25.setAvailable(true);
-        productRepository.save(product25);
+        products.add(product25);
 
         Product product26 = new Product();
         product26.setName("Cream (200ml)");
@@ -292,7 +305,7 @@ public class DataInitializer implements CommandLineRunner {
         product26.setDescription("Fresh cream for cooking and desserts");
         product26.setCategory("Dairy & Eggs");
         product26.setAvailable(true);
-        productRepository.save(product26);
+        products.add(product26);
 
         Product product27 = new Product();
         product27.setName("Mozzarella Cheese (200g)");
@@ -301,7 +314,7 @@ public class DataInitializer implements CommandLineRunner {
         product27.setDescription("Fresh mozzarella cheese");
         product27.setCategory("Dairy & Eggs");
         product27.setAvailable(true);
-        productRepository.save(product27);
+        products.add(product27);
 
         Product product28 = new Product();
         product28.setName("Greek Yogurt (400g)");
@@ -310,7 +323,7 @@ public class DataInitializer implements CommandLineRunner {
         product28.setDescription("Thick Greek yogurt, high in protein");
         product28.setCategory("Dairy & Eggs");
         product28.setAvailable(true);
-        productRepository.save(product28);
+        products.add(product28);
 
         // Bakery
         Product product29 = new Product();
@@ -320,7 +333,7 @@ public class DataInitializer implements CommandLineRunner {
         product29.setDescription("Fresh baked whole wheat bread, soft and delicious");
         product29.setCategory("Bakery");
         product29.setAvailable(true);
-        productRepository.save(product29);
+        products.add(product29);
 
         Product product30 = new Product();
         product30.setName("Croissants (6 pieces)");
@@ -329,7 +342,7 @@ public class DataInitializer implements CommandLineRunner {
         product30.setDescription("Fresh baked croissants");
         product30.setCategory("Bakery");
         product30.setAvailable(true);
-        productRepository.save(product30);
+        products.add(product30);
 
         Product product31 = new Product();
         product31.setName("Chocolate Cake (500g)");
@@ -338,7 +351,7 @@ public class DataInitializer implements CommandLineRunner {
         product31.setDescription("Delicious chocolate cake");
         product31.setCategory("Bakery");
         product31.setAvailable(true);
-        productRepository.save(product31);
+        products.add(product31);
 
         Product product32 = new Product();
         product32.setName("Chocolate Cookies (250g)");
@@ -347,7 +360,7 @@ public class DataInitializer implements CommandLineRunner {
         product32.setDescription("Fresh baked chocolate cookies");
         product32.setCategory("Bakery");
         product32.setAvailable(true);
-        productRepository.save(product32);
+        products.add(product32);
 
         Product product33 = new Product();
         product33.setName("Donuts (6 pieces)");
@@ -356,7 +369,7 @@ public class DataInitializer implements CommandLineRunner {
         product33.setDescription("Fresh glazed donuts");
         product33.setCategory("Bakery");
         product33.setAvailable(true);
-        productRepository.save(product33);
+        products.add(product33);
 
         Product product34 = new Product();
         product34.setName("Baguette (250g)");
@@ -365,7 +378,7 @@ public class DataInitializer implements CommandLineRunner {
         product34.setDescription("Fresh French baguette");
         product34.setCategory("Bakery");
         product34.setAvailable(true);
-        productRepository.save(product34);
+        products.add(product34);
 
         Product product35 = new Product();
         product35.setName("Muffins (4 pieces)");
@@ -374,7 +387,7 @@ public class DataInitializer implements CommandLineRunner {
         product35.setDescription("Fresh baked muffins");
         product35.setCategory("Bakery");
         product35.setAvailable(true);
-        productRepository.save(product35);
+        products.add(product35);
 
         // Meat & Seafood
         Product product36 = new Product();
@@ -384,7 +397,7 @@ public class DataInitializer implements CommandLineRunner {
         product36.setDescription("Fresh chicken breast, perfect for grilling or cooking");
         product36.setCategory("Meat & Seafood");
         product36.setAvailable(true);
-        productRepository.save(product36);
+        products.add(product36);
 
         Product product37 = new Product();
         product37.setName("Beef Mince (500g)");
@@ -393,7 +406,7 @@ public class DataInitializer implements CommandLineRunner {
         product37.setDescription("Fresh beef mince for cooking");
         product37.setCategory("Meat & Seafood");
         product37.setAvailable(true);
-        productRepository.save(product37);
+        products.add(product37);
 
         Product product38 = new Product();
         product38.setName("Salmon Fillet (400g)");
@@ -402,7 +415,7 @@ public class DataInitializer implements CommandLineRunner {
         product38.setDescription("Fresh salmon fillet, rich in omega-3");
         product38.setCategory("Meat & Seafood");
         product38.setAvailable(true);
-        productRepository.save(product38);
+        products.add(product38);
 
         Product product39 = new Product();
         product39.setName("Pork Chops (500g)");
@@ -411,7 +424,7 @@ public class DataInitializer implements CommandLineRunner {
         product39.setDescription("Fresh pork chops");
         product39.setCategory("Meat & Seafood");
         product39.setAvailable(true);
-        productRepository.save(product39);
+        products.add(product39);
 
         Product product40 = new Product();
         product40.setName("Lamb Chops (500g)");
@@ -420,7 +433,7 @@ public class DataInitializer implements CommandLineRunner {
         product40.setDescription("Fresh lamb chops");
         product40.setCategory("Meat & Seafood");
         product40.setAvailable(true);
-        productRepository.save(product40);
+        products.add(product40);
 
         Product product41 = new Product();
         product41.setName("Shrimp (300g)");
@@ -429,7 +442,7 @@ public class DataInitializer implements CommandLineRunner {
         product41.setDescription("Fresh shrimp, perfect for cooking");
         product41.setCategory("Meat & Seafood");
         product41.setAvailable(true);
-        productRepository.save(product41);
+        products.add(product41);
 
         Product product42 = new Product();
         product42.setName("Tuna Steak (300g)");
@@ -438,7 +451,7 @@ public class DataInitializer implements CommandLineRunner {
         product42.setDescription("Fresh tuna steak");
         product42.setCategory("Meat & Seafood");
         product42.setAvailable(true);
-        productRepository.save(product42);
+        products.add(product42);
 
         // Beverages
         Product product43 = new Product();
@@ -448,7 +461,7 @@ public class DataInitializer implements CommandLineRunner {
         product43.setDescription("Premium coffee beans");
         product43.setCategory("Beverages");
         product43.setAvailable(true);
-        productRepository.save(product43);
+        products.add(product43);
 
         Product product44 = new Product();
         product44.setName("Green Tea (100 bags)");
@@ -457,7 +470,7 @@ public class DataInitializer implements CommandLineRunner {
         product44.setDescription("Assorted green tea bags");
         product44.setCategory("Beverages");
         product44.setAvailable(true);
-        productRepository.save(product44);
+        products.add(product44);
 
         Product product45 = new Product();
         product45.setName("Fresh Orange Juice (1L)");
@@ -466,7 +479,7 @@ public class DataInitializer implements CommandLineRunner {
         product45.setDescription("Fresh orange juice");
         product45.setCategory("Beverages");
         product45.setAvailable(true);
-        productRepository.save(product45);
+        products.add(product45);
 
         Product product46 = new Product();
         product46.setName("Mineral Water (2L)");
@@ -475,7 +488,7 @@ public class DataInitializer implements CommandLineRunner {
         product46.setDescription("Pure mineral water");
         product46.setCategory("Beverages");
         product46.setAvailable(true);
-        productRepository.save(product46);
+        products.add(product46);
 
         Product product47 = new Product();
         product47.setName("Coconut Water (500ml)");
@@ -484,7 +497,7 @@ public class DataInitializer implements CommandLineRunner {
         product47.setDescription("Fresh coconut water");
         product47.setCategory("Beverages");
         product47.setAvailable(true);
-        productRepository.save(product47);
+        products.add(product47);
 
         Product product48 = new Product();
         product48.setName("Apple Juice (1L)");
@@ -493,7 +506,7 @@ public class DataInitializer implements CommandLineRunner {
         product48.setDescription("Fresh apple juice");
         product48.setCategory("Beverages");
         product48.setAvailable(true);
-        productRepository.save(product48);
+        products.add(product48);
 
         Product product49 = new Product();
         product49.setName("Herbal Tea (50 bags)");
@@ -502,7 +515,7 @@ public class DataInitializer implements CommandLineRunner {
         product49.setDescription("Assorted herbal tea bags");
         product49.setCategory("Beverages");
         product49.setAvailable(true);
-        productRepository.save(product49);
+        products.add(product49);
 
         // Snacks & Nuts
         Product product50 = new Product();
@@ -512,7 +525,7 @@ public class DataInitializer implements CommandLineRunner {
         product50.setDescription("Crispy potato chips");
         product50.setCategory("Snacks & Nuts");
         product50.setAvailable(true);
-        productRepository.save(product50);
+        products.add(product50);
 
         Product product51 = new Product();
         product51.setName("Mixed Nuts (200g)");
@@ -521,7 +534,7 @@ public class DataInitializer implements CommandLineRunner {
         product51.setDescription("Mixed nuts and dry fruits");
         product51.setCategory("Snacks & Nuts");
         product51.setAvailable(true);
-        productRepository.save(product51);
+        products.add(product51);
 
         Product product52 = new Product();
         product52.setName("Dark Chocolate (100g)");
@@ -530,7 +543,7 @@ public class DataInitializer implements CommandLineRunner {
         product52.setDescription("Dark chocolate bar");
         product52.setCategory("Snacks & Nuts");
         product52.setAvailable(true);
-        productRepository.save(product52);
+        products.add(product52);
 
         Product product53 = new Product();
         product53.setName("Popcorn (200g)");
@@ -539,7 +552,7 @@ public class DataInitializer implements CommandLineRunner {
         product53.setDescription("Fresh popcorn kernels");
         product53.setCategory("Snacks & Nuts");
         product53.setAvailable(true);
-        productRepository.save(product53);
+        products.add(product53);
 
         Product product54 = new Product();
         product54.setName("Cashews (200g)");
@@ -548,7 +561,7 @@ public class DataInitializer implements CommandLineRunner {
         product54.setDescription("Premium cashew nuts");
         product54.setCategory("Snacks & Nuts");
         product54.setAvailable(true);
-        productRepository.save(product54);
+        products.add(product54);
 
         Product product55 = new Product();
         product55.setName("Almonds (200g)");
@@ -557,7 +570,7 @@ public class DataInitializer implements CommandLineRunner {
         product55.setDescription("Premium almonds");
         product55.setCategory("Snacks & Nuts");
         product55.setAvailable(true);
-        productRepository.save(product55);
+        products.add(product55);
 
         Product product56 = new Product();
         product56.setName("Raisins (250g)");
@@ -566,7 +579,7 @@ public class DataInitializer implements CommandLineRunner {
         product56.setDescription("Sweet dried raisins");
         product56.setCategory("Snacks & Nuts");
         product56.setAvailable(true);
-        productRepository.save(product56);
+        products.add(product56);
 
         // Pantry & Staples
         Product product57 = new Product();
@@ -576,7 +589,7 @@ public class DataInitializer implements CommandLineRunner {
         product57.setDescription("Premium basmati rice");
         product57.setCategory("Pantry & Staples");
         product57.setAvailable(true);
-        productRepository.save(product57);
+        products.add(product57);
 
         Product product58 = new Product();
         product58.setName("Whole Wheat Flour (1kg)");
@@ -585,7 +598,7 @@ public class DataInitializer implements CommandLineRunner {
         product58.setDescription("Whole wheat flour for baking");
         product58.setCategory("Pantry & Staples");
         product58.setAvailable(true);
-        productRepository.save(product58);
+        products.add(product58);
 
         Product product59 = new Product();
         product59.setName("Olive Oil (500ml)");
@@ -594,7 +607,7 @@ public class DataInitializer implements CommandLineRunner {
         product59.setDescription("Extra virgin olive oil");
         product59.setCategory("Pantry & Staples");
         product59.setAvailable(true);
-        productRepository.save(product59);
+        products.add(product59);
 
         Product product60 = new Product();
         product60.setName("Honey (500g)");
@@ -603,7 +616,7 @@ public class DataInitializer implements CommandLineRunner {
         product60.setDescription("Pure natural honey");
         product60.setCategory("Pantry & Staples");
         product60.setAvailable(true);
-        productRepository.save(product60);
+        products.add(product60);
 
         Product product61 = new Product();
         product61.setName("Pasta (500g)");
@@ -612,7 +625,7 @@ public class DataInitializer implements CommandLineRunner {
         product61.setDescription("Premium pasta");
         product61.setCategory("Pantry & Staples");
         product61.setAvailable(true);
-        productRepository.save(product61);
+        products.add(product61);
 
         Product product62 = new Product();
         product62.setName("Black Pepper (100g)");
@@ -621,7 +634,7 @@ public class DataInitializer implements CommandLineRunner {
         product62.setDescription("Fresh ground black pepper");
         product62.setCategory("Pantry & Staples");
         product62.setAvailable(true);
-        productRepository.save(product62);
+        products.add(product62);
 
         Product product63 = new Product();
         product63.setName("Sugar (1kg)");
@@ -630,7 +643,7 @@ public class DataInitializer implements CommandLineRunner {
         product63.setDescription("Refined white sugar");
         product63.setCategory("Pantry & Staples");
         product63.setAvailable(true);
-        productRepository.save(product63);
+        products.add(product63);
 
         Product product64 = new Product();
         product64.setName("Salt (500g)");
@@ -639,7 +652,7 @@ public class DataInitializer implements CommandLineRunner {
         product64.setDescription("Iodized table salt");
         product64.setCategory("Pantry & Staples");
         product64.setAvailable(true);
-        productRepository.save(product64);
+        products.add(product64);
 
         // Frozen Foods
         Product product65 = new Product();
@@ -649,7 +662,7 @@ public class DataInitializer implements CommandLineRunner {
         product65.setDescription("Frozen mixed vegetables");
         product65.setCategory("Frozen Foods");
         product65.setAvailable(true);
-        productRepository.save(product65);
+        products.add(product65);
 
         Product product66 = new Product();
         product66.setName("Ice Cream (500ml)");
@@ -658,7 +671,7 @@ public class DataInitializer implements CommandLineRunner {
         product66.setDescription("Vanilla ice cream");
         product66.setCategory("Frozen Foods");
         product66.setAvailable(true);
-        productRepository.save(product66);
+        products.add(product66);
 
         Product product67 = new Product();
         product67.setName("Frozen Pizza (400g)");
@@ -667,7 +680,7 @@ public class DataInitializer implements CommandLineRunner {
         product67.setDescription("Frozen margherita pizza");
         product67.setCategory("Frozen Foods");
         product67.setAvailable(true);
-        productRepository.save(product67);
+        products.add(product67);
 
         Product product68 = new Product();
         product68.setName("Frozen Fish Fillets (500g)");
@@ -676,7 +689,7 @@ public class DataInitializer implements CommandLineRunner {
         product68.setDescription("Frozen fish fillets");
         product68.setCategory("Frozen Foods");
         product68.setAvailable(true);
-        productRepository.save(product68);
+        products.add(product68);
 
         Product product69 = new Product();
         product69.setName("Frozen French Fries (500g)");
@@ -685,7 +698,7 @@ public class DataInitializer implements CommandLineRunner {
         product69.setDescription("Frozen French fries");
         product69.setCategory("Frozen Foods");
         product69.setAvailable(true);
-        productRepository.save(product69);
+        products.add(product69);
 
         // Personal Care
         Product product70 = new Product();
@@ -695,7 +708,7 @@ public class DataInitializer implements CommandLineRunner {
         product70.setDescription("Fresh mint toothpaste");
         product70.setCategory("Personal Care");
         product70.setAvailable(true);
-        productRepository.save(product70);
+        products.add(product70);
 
         Product product71 = new Product();
         product71.setName("Shampoo (400ml)");
@@ -704,7 +717,7 @@ public class DataInitializer implements CommandLineRunner {
         product71.setDescription("Nourishing shampoo");
         product71.setCategory("Personal Care");
         product71.setAvailable(true);
-        productRepository.save(product71);
+        products.add(product71);
 
         Product product72 = new Product();
         product72.setName("Soap Bar (100g)");
@@ -713,7 +726,7 @@ public class DataInitializer implements CommandLineRunner {
         product72.setDescription("Natural soap bar");
         product72.setCategory("Personal Care");
         product72.setAvailable(true);
-        productRepository.save(product72);
+        products.add(product72);
 
         Product product73 = new Product();
         product73.setName("Deodorant (150ml)");
@@ -722,7 +735,7 @@ public class DataInitializer implements CommandLineRunner {
         product73.setDescription("Long-lasting deodorant");
         product73.setCategory("Personal Care");
         product73.setAvailable(true);
-        productRepository.save(product73);
+        products.add(product73);
 
         // Household
         Product product74 = new Product();
@@ -732,7 +745,7 @@ public class DataInitializer implements CommandLineRunner {
         product74.setDescription("Effective dish soap");
         product74.setCategory("Household");
         product74.setAvailable(true);
-        productRepository.save(product74);
+        products.add(product74);
 
         Product product75 = new Product();
         product75.setName("Laundry Detergent (2L)");
@@ -741,7 +754,7 @@ public class DataInitializer implements CommandLineRunner {
         product75.setDescription("Gentle laundry detergent");
         product75.setCategory("Household");
         product75.setAvailable(true);
-        productRepository.save(product75);
+        products.add(product75);
 
         Product product76 = new Product();
         product76.setName("Paper Towels (6 rolls)");
@@ -750,7 +763,7 @@ public class DataInitializer implements CommandLineRunner {
         product76.setDescription("Absorbent paper towels");
         product76.setCategory("Household");
         product76.setAvailable(true);
-        productRepository.save(product76);
+        products.add(product76);
 
         Product product77 = new Product();
         product77.setName("Toilet Paper (12 rolls)");
@@ -759,8 +772,9 @@ public class DataInitializer implements CommandLineRunner {
         product77.setDescription("Soft toilet paper");
         product77.setCategory("Household");
         product77.setAvailable(true);
-        productRepository.save(product77);
+        products.add(product77);
 
+        productRepository.saveAll(products);
         System.out.println("Enhanced product catalog initialized successfully with 77 products across 10 categories!");
     }
 }
@@ -0,0 +1,49 @@
+package com.grocify.config;
+
+import com.grocify.service.IdAllocator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tables that predate the id generator were filled with IDENTITY keys, so each generator
+ * row is moved past the highest existing id. The entity manager factory depends on this
+ * bean, as it would on a Flyway migration, so it runs before anything can write through
+ * JPA, and before the schedulers, the intake pipeline and the web server start.
+ */
+@Component
+public class IdGeneratorMigration {
+
+    private static final String[] TABLES = {"products", "orders", "order_items", "feedback"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @PostConstruct
+    public void migrate() {
+        for (String table : TABLES) {
+            Long maxId;
+            try {
+                maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            } catch (BadSqlGrammarException e) {
+                // A new database: Hibernate creates the table, empty, after this has run
+                continue;
+            }
+            idAllocator.ensureAbove(table, maxId);
+        }
+    }
+
+    @Component
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnMigration() {
+            super(IdGeneratorMigration.class);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.grocify.config;
+
+import com.grocify.service.IdAllocator;
+import com.grocify.service.ProductService;
+import com.grocify.util.UnitPriceParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the database with a production-sized synthetic dataset when the loadtest profile
+ * is active. Rows are written in chunks by parallel writers, each chunk with multi-row
+ * INSERTs in its own transaction. Every chunk draws from its own random stream derived
+ * from the seed, so a seed always yields the same rows whatever the number of threads.
+ * Orders and reviews follow a Zipf distribution over products and customers.
+ */
+@Component
+@Profile("loadtest")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class LoadTestDataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestDataGenerator.class);
+
+    private static final String USERNAME_PREFIX = "loadtest-";
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    private static final long HISTORY_SECONDS = 365L * 24 * 3600;
+
+    private static final String[] CATEGORIES = {
+            "Fruits", "Vegetables", "Dairy & Eggs", "Bakery", "Beverages", "Snacks & Nuts",
+            "Pantry & Staples", "Meat & Seafood", "Frozen Foods", "Household", "Personal Care"};
+
+    private static final String[][] NOUNS = {
+            {"Bananas", "Apples", "Oranges", "Mangoes", "Grapes", "Pomegranates", "Pears", "Kiwis"},
+            {"Tomatoes", "Potatoes", "Onions", "Carrots", "Spinach", "Broccoli", "Cauliflower", "Capsicum"},
+            {"Milk", "Eggs", "Butter", "Paneer", "Yogurt", "Cheese Slices", "Curd", "Cream"},
+            {"Bread", "Buns", "Croissants", "Muffins", "Cookies", "Rusk", "Bagels", "Pav"},
+            {"Orange Juice", "Green Tea", "Coffee Beans", "Cola", "Coconut Water", "Lemonade", "Mineral Water"},
+            {"Almonds", "Cashews", "Potato Chips", "Peanuts", "Trail Mix", "Popcorn", "Walnuts"},
+            {"Basmati Rice", "Wheat Flour", "Toor Dal", "Sugar", "Salt", "Sunflower Oil", "Chickpeas"},
+            {"Chicken Breast", "Mutton Curry Cut", "Prawns", "Salmon Fillet", "Fish Fingers", "Chicken Sausages"},
+            {"Frozen Peas", "Ice Cream", "Frozen Pizza", "French Fries", "Frozen Corn", "Veg Nuggets"},
+            {"Dishwash Liquid", "Laundry Detergent", "Paper Towels", "Toilet Paper", "Floor Cleaner", "Garbage Bags"},
+            {"Shampoo", "Toothpaste", "Hand Wash", "Body Lotion", "Soap Bar", "Face Wash"}};
+
+    private static final String[][] PACKS = {
+            {"500g", "1kg", "2kg", "6 pcs", "12 pcs"},
+            {"250g", "500g", "1kg", "2kg"},
+            {"200ml", "500ml", "1L", "6 pcs", "12 pcs", "200g", "400g"},
+            {"200g", "400g", "4 pcs", "6 pcs"},
+            {"250ml", "500ml", "1L", "2L", "250g", "500g"},
+            {"100g", "200g", "500g", "1kg"},
+            {"500g", "1kg", "5kg", "1L", "5L"},
+            {"250g", "500g", "1kg"},
+            {"300g", "500g", "1kg", "1L"},
+            {"500ml", "1L", "2L", "6 pcs", "12 pcs"},
+            {"100ml", "200ml", "400ml", "75g", "150g"}};
+
+    private static final double[] BASE_PRICES = {90, 60, 70, 50, 120, 250, 150, 400, 180, 200, 160};
+
+    private static final String[] ADJECTIVES = {
+            "Organic", "Fresh", "Premium", "Farm", "Classic", "Value", "Select", "Daily", "Natural", "Family"};
+
+    private static final String[] STREETS = {"MG Road", "Park Street", "Lake View", "Station Road", "Church Street", "Hill Road"};
+
+    private static final String[] CITIES = {"Bengaluru", "Mumbai", "Delhi", "Chennai", "Hyderabad", "Pune", "Kolkata"};
+
+    private static final String[][] COMMENTS = {
+            {"Arrived spoiled", "Not as described", "Would not buy again"},
+            {"Below expectations", "Packaging was damaged", "Too expensive for the quality"},
+            {"Okay for the price", "Average quality", "Delivery was late but product fine"},
+            {"Good quality", "Fresh and well packed", "Would buy again"},
+            {"Excellent!", "Best I have bought online", "Always fresh, highly recommended"}};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.products:100000}")
+    private int productCount;
+
+    @Value("${loadtest.users:10000}")
+    private int userCount;
+
+    @Value("${loadtest.orders:100000}")
+    private int orderCount;
+
+    @Value("${loadtest.feedback:20000}")
+    private int feedbackCount;
+
+    @Value("${loadtest.threads:0}")
+    private int threads;
+
+    @Value("${loadtest.rows-per-statement:500}")
+    private int rowsPerStatement;
+
+    @Value("${loadtest.history-end:2025-01-01}")
+    private String historyEnd;
+
+    @Override
+    public void run(String... args) throws Exception {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username = ?", Integer.class, USERNAME_PREFIX + 0);
+        if (existing != null && existing > 0) {
+            log.info("Load test dataset already present, skipping generation");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        int writerCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService writers = Executors.newFixedThreadPool(writerCount);
+        try {
+            Dataset dataset = new Dataset();
+            generateProducts(writers, dataset);
+            log.info("Generated {} products", productCount);
+            generateUsers(dataset);
+            log.info("Generated {} users", dataset.userIds.length);
+            generateOrders(writers, dataset);
+            log.info("Generated {} orders", orderCount);
+            generateFeedback(writers, dataset);
+            log.info("Generated {} feedback rows", feedbackCount);
+        } finally {
+            writers.shutdown();
+        }
+
+        productService.reloadCatalog();
+        log.info("Load test dataset generated with {} writers in {} s",
+                writerCount, (System.currentTimeMillis() - started) / 1000);
+    }
+
+    private void generateProducts(ExecutorService writers, Dataset dataset) throws Exception {
+        dataset.firstProductId = productCount > 0 ? idAllocator.reserve("products", productCount) : 0;
+        dataset.prices = new double[productCount];
+        Zipf categories = new Zipf(CATEGORIES.length, 0.6);
+
+        inChunks(writers, productCount, (chunk, from, to) -> {
+            SplittableRandom random = random(1, chunk);
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                int category = categories.sample(random);
+                String adjective = pick(random, ADJECTIVES);
+                String noun = pick(random, NOUNS[category]);
+                double price = Math.max(1, Math.round(BASE_PRICES[category] * Math.exp(0.5 * random.nextGaussian())));
+                dataset.prices[i] = price;
+                String pack = pick(random, PACKS[category]);
+                UnitPriceParser.PackSize packSize = UnitPriceParser.parse(pack);
+                rows.add(new Object[] {
+                        dataset.firstProductId + i,
+                        adjective + " " + noun + " (" + pack + ")",
+                        price,
+                        null,
+                        adjective + " " + noun.toLowerCase() + " from our " + CATEGORIES[category] + " range",
+                        CATEGORIES[category],
+                        random.nextInt(100) < 95,
+                        packSize != null ? packSize.getUnit() : null,
+                        packSize != null ? UnitPriceParser.unitPrice(price, packSize) : null});
+            }
+            insertRows("products",
+                    "id, name, price, image_url, description, category, available, unit_type, unit_price", rows);
+        });
+    }
+
+    // Users keep their IDENTITY keys, so they are written in order by one thread and read back
+    private void generateUsers(Dataset dataset) {
+        String password = passwordEncoder.encode("loadtest");
+        for (int from = 0; from < userCount; from += CHUNK_SIZE) {
+            int to = Math.min(userCount, from + CHUNK_SIZE);
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                rows.add(new Object[] {USERNAME_PREFIX + i, password, "USER", true});
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    insertRows("users", "username, password, role, enabled", rows));
+        }
+        dataset.userIds = jdbcTemplate.queryForList(
+                        "SELECT id FROM users WHERE username LIKE ? ORDER BY id", Long.class, USERNAME_PREFIX + "%")
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private void generateOrders(ExecutorService writers, Dataset dataset) throws Exception {
+        if (orderCount == 0 || dataset.userIds.length == 0 || productCount == 0) {
+            return;
+        }
+        // Item counts are drawn up front so that item ids can be reserved in one range
+        int[] itemCounts = new int[orderCount];
+        long[] firstItemOffset = new long[orderCount];
+        long totalItems = 0;
+        for (int from = 0, chunk = 0; from < orderCount; from += CHUNK_SIZE, chunk++) {
+            SplittableRandom random = random(2, chunk);
+            for (int i = from; i < Math.min(orderCount, from + CHUNK_SIZE); i++) {
+                itemCounts[i] = Math.min(20, 1 + (int) (-Math.log(1 - random.nextDouble()) * 3));
+                firstItemOffset[i] = totalItems;
+                totalItems += itemCounts[i];
+            }
+        }
+        if (totalItems > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many order items requested: " + totalItems);
+        }
+
+        long firstOrderId = idAllocator.reserve("orders", orderCount);
+        long firstItemId = idAllocator.reserve("order_items", (int) totalItems);
+        Zipf products = new Zipf(productCount, 1.0);
+        Zipf customers = new Zipf(dataset.userIds.length, 0.8);
+        LocalDateTime end = LocalDate.parse(historyEnd).atStartOfDay();
+
+        inChunks(writers, orderCount, (chunk, from, to) -> {
+            SplittableRandom random = random(3, chunk);
+            List<Object[]> orders = new ArrayList<>(to - from);
+            List<Object[]> items = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                long orderId = firstOrderId + i;
+                double total = 0;
+                for (int item = 0; item < itemCounts[i]; item++) {
+                    int product = products.sample(random);
+                    int quantity = random.nextInt(10) < 7 ? 1 : 2 + random.nextInt(4);
+                    double price = dataset.prices[product];
+                    total += price * quantity;
+                    items.add(new Object[] {
+                            firstItemId + firstItemOffset[i] + item, orderId, dataset.firstProductId + product, quantity, price});
+                }
+
+                LocalDateTime orderDate = end.minusSeconds(random.nextLong(HISTORY_SECONDS));
+                String status;
+                LocalDateTime deliveryDate = null;
+                if (orderDate.isAfter(end.minusDays(3))) {
+                    status = pick(random, new String[] {"PENDING", "CONFIRMED", "SHIPPED"});
+                } else if (random.nextInt(100) < 92) {
+                    status = "DELIVERED";
+                    deliveryDate = orderDate.plusHours(12 + random.nextInt(60));
+                } else {
+                    status = "CANCELLED";
+                }
+                orders.add(new Object[] {
+                        orderId,
+                        dataset.userIds[customers.sample(random)],
+                        Math.round(total * 100) / 100.0,
+                        status,
+                        (1 + random.nextInt(500)) + " " + pick(random, STREETS) + ", " + pick(random, CITIES),
+                        random.nextInt(100) < 70 ? "CASH_ON_DELIVERY" : "ONLINE_PAYMENT",
+                        Timestamp.valueOf(orderDate),
+                        deliveryDate != null ? Timestamp.valueOf(deliveryDate) : null,
+                        null});
+            }
+            insertRows("orders",
+                    "id, user_id, total_amount, status, shipping_address, payment_method, order_date, delivery_date, notes",
+                    orders);
+            insertRows("order_items", "id, order_id, product_id, quantity, price", items);
+        });
+    }
+
+    private void generateFeedback(ExecutorService writers, Dataset dataset) throws Exception {
+        if (feedbackCount == 0 || dataset.userIds.length == 0 || productCount == 0) {
+            return;
+        }
+        long firstFeedbackId = idAllocator.reserve("feedback", feedbackCount);
+        Zipf products = new Zipf(productCount, 1.0);
+        Zipf customers = new Zipf(dataset.userIds.length, 0.8);
+        LocalDateTime end = LocalDate.parse(historyEnd).atStartOfDay();
+
+        inChunks(writers, feedbackCount, (chunk, from, to) -> {
+            SplittableRandom random = random(4, chunk);
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                int draw = random.nextInt(100);
+                int rating = draw < 5 ? 1 : draw < 12 ? 2 : draw < 27 ? 3 : draw < 60 ? 4 : 5;
+                int type = random.nextInt(100);
+                rows.add(new Object[] {
+                        firstFeedbackId + i,
+                        dataset.userIds[customers.sample(random)],
+                        dataset.firstProductId + products.sample(random),
+                        rating,
+                        pick(random, COMMENTS[rating - 1]),
+                        Timestamp.valueOf(end.minusSeconds(random.nextLong(HISTORY_SECONDS))),
+                        type < 85 ? "REVIEW" : type < 95 ? "SUGGESTION" : "COMPLAINT",
+                        random.nextInt(100) < 90});
+            }
+            insertRows("feedback", "id, user_id, product_id, rating, comment, created_at, feedback_type, is_public", rows);
+        });
+    }
+
+    private void inChunks(ExecutorService writers, int rowCount, ChunkWriter writer) throws Exception {
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0, chunk = 0; from < rowCount; from += CHUNK_SIZE, chunk++) {
+            int chunkIndex = chunk;
+            int chunkFrom = from;
+            int chunkTo = Math.min(rowCount, from + CHUNK_SIZE);
+            chunks.add(writers.submit(() -> transactionTemplate.executeWithoutResult(status ->
+                    writer.write(chunkIndex, chunkFrom, chunkTo))));
+        }
+        for (Future<?> chunk : chunks) {
+            chunk.get();
+        }
+    }
+
+    private void insertRows(String table, String columns, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int columnCount = rows.get(0).length;
+        String placeholders = "(" + "?, ".repeat(columnCount - 1) + "?)";
+        for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+            int to = Math.min(rows.size(), from + rowsPerStatement);
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                    .append(" (").append(columns).append(") VALUES ");
+            Object[] args = new Object[(to - from) * columnCount];
+            for (int row = from; row < to; row++) {
+                if (row > from) {
+                    sql.append(", ");
+                }
+                sql.append(placeholders);
+                System.arraycopy(rows.get(row), 0, args, (row - from) * columnCount, columnCount);
+            }
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+
+    // Independent stream per phase and chunk, so output does not depend on scheduling
+    private SplittableRandom random(int phase, int chunk) {
+        return new SplittableRandom(seed ^ (phase * 0x9E3779B97F4A7C15L) ^ (chunk * 0xC2B2AE3D27D4EB4FL));
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private interface ChunkWriter {
+        void write(int chunk, int from, int to);
+    }
+
+    private static final class Dataset {
+        private long firstProductId;
+        private double[] prices;
+        private long[] userIds;
+    }
+
+    // Samples indexes by Zipf rank, scattered over the index space so the head is not the first rows
+    private static final class Zipf {
+        private final double[] cumulative;
+        private final long stride;
+
+        private Zipf(int size, double exponent) {
+            long candidate = 2_654_435_761L % size;
+            while (candidate == 0 || BigInteger.valueOf(candidate).gcd(BigInteger.valueOf(size)).intValue() != 1) {
+                candidate++;
+            }
+            stride = candidate;
+            cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 0; rank < size; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < size; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        private int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int rank = Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+            return (int) (rank * stride % cumulative.length);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.grocify.config;
+
+import com.grocify.service.ProductService;
+import com.grocify.util.UnitPriceParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills in the unit price of products written before it was derived on save. Names
+ * without a pack size keep a null unit type and are simply parsed again next start.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class UnitPriceMigration implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UnitPriceMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductService productService;
+
+    @Override
+    public void run(String... args) {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, name, price FROM products WHERE unit_type IS NULL", row -> {
+            UnitPriceParser.PackSize pack = UnitPriceParser.parse(row.getString("name"));
+            double price = row.getDouble("price");
+            if (pack != null && !row.wasNull()) {
+                updates.add(new Object[] {pack.getUnit(), UnitPriceParser.unitPrice(price, pack), row.getLong("id")});
+            }
+        });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE products SET unit_type = ?, unit_price = ? WHERE id = ?", updates);
+            log.info("Derived unit prices for {} products", updates.size());
+            // Requests may already have loaded the catalog without them
+            productService.reloadCatalog();
+        }
+    }
+}
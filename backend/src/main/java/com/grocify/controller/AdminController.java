@@ -1,13 +1,26 @@
 package com.grocify.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocify.dto.ImportReport;
 import com.grocify.repository.ProductRepository;
 import com.grocify.repository.UserRepository;
+import com.grocify.service.InventoryService;
+import com.grocify.service.ProductExportService;
+import com.grocify.service.ProductImportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -22,6 +35,18 @@ public class AdminController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
         Map<String, Object> stats = new HashMap<>();
@@ -49,6 +74,122 @@ public class AdminController {
         
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importProducts(@RequestHeader("Content-Type") MediaType contentType, InputStream body) {
+        try {
+            ImportReport report = "csv".equals(contentType.getSubtype())
+                    ? productImportService.importCsv(body)
+                    : productImportService.importNdjson(body);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Same import for clients asking for NDJSON: one line of counts after every batch, then the report
+    @PostMapping(value = "/products/import", consumes = {"text/csv", "application/x-ndjson"}, produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> importProductsWithProgress(@RequestHeader("Content-Type") MediaType contentType,
+                                                                            InputStream body) {
+        StreamingResponseBody stream = output -> {
+            ProgressWriter progress = new ProgressWriter(output);
+            try {
+                ImportReport report = "csv".equals(contentType.getSubtype())
+                        ? productImportService.importCsv(body, progress::batch)
+                        : productImportService.importNdjson(body, progress::batch);
+                progress.write(report);
+            } catch (Exception e) {
+                progress.write(Map.of("error", String.valueOf(e.getMessage())));
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(stream);
+    }
+
+    @GetMapping("/products/{id}/stock")
+    public ResponseEntity<Map<String, Object>> getStock(@PathVariable Long id) {
+        if (!productRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(inventoryService.getStock(id));
+    }
+
+    // Adds to the product's stock; the first restock starts tracking it
+    @PostMapping("/products/{id}/stock")
+    public ResponseEntity<?> restock(@PathVariable Long id, @RequestBody RestockRequest request) {
+        if (!productRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            inventoryService.addStock(id, request.getQuantity());
+            return ResponseEntity.ok(inventoryService.getStock(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = ProductExportService.FORMAT_NDJSON) String format) {
+        MediaType contentType;
+        if (ProductExportService.FORMAT_NDJSON.equals(format)) {
+            contentType = MediaType.parseMediaType("application/x-ndjson");
+        } else if (ProductExportService.FORMAT_CSV.equals(format)) {
+            contentType = MediaType.parseMediaType("text/csv");
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = output -> productExportService.export(format, output);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("products." + format).build().toString())
+                .body(body);
+    }
+
+    // A client that went away does not stop the import; its later lines are dropped
+    private class ProgressWriter {
+        private final OutputStream output;
+        private boolean closed;
+
+        private ProgressWriter(OutputStream output) {
+            this.output = output;
+        }
+
+        private void batch(ImportReport report) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("batches", report.getBatches());
+            line.put("rowsRead", report.getRowsRead());
+            line.put("imported", report.getImported());
+            line.put("rejected", report.getRejected());
+            write(line);
+        }
+
+        private void write(Object line) {
+            if (closed) {
+                return;
+            }
+            try {
+                output.write(objectMapper.writeValueAsBytes(line));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                closed = true;
+            }
+        }
+    }
+
+    public static class RestockRequest {
+        private int quantity;
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+    }
 }
 
 
@@ -2,15 +2,23 @@ package com.grocify.controller;
 
 import com.grocify.entity.Order;
 import com.grocify.entity.User;
+import com.grocify.service.CartValidationException;
+import com.grocify.service.IdempotencyConflictException;
+import com.grocify.service.IdempotencyService;
+import com.grocify.service.OrderIntakeFullException;
 import com.grocify.service.OrderService;
 import com.grocify.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,13 +31,43 @@ public class OrderController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    // With an Idempotency-Key, retries of the same request return the first response instead of placing the order again
     @PostMapping("/place")
-    public ResponseEntity<?> placeOrder(@RequestBody OrderRequest orderRequest) {
+    public ResponseEntity<?> placeOrder(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                        @RequestBody OrderRequest orderRequest) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String username = authentication.getName();
             User user = userService.findByUsername(username);
 
+            if (idempotencyKey == null) {
+                return placeOrder(user, orderRequest);
+            }
+            return idempotencyService.execute(user.getId(), idempotencyKey, orderRequest, () -> placeOrder(user, orderRequest));
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to place order: " + e.getMessage());
+        }
+    }
+
+    // In async intake mode the order is only queued: 202 with its id, and its status from GET /{orderId}
+    private ResponseEntity<?> placeOrder(User user, OrderRequest orderRequest) {
+        try {
+            if (orderService.isAsyncIntake()) {
+                Order order = orderService.submitOrder(
+                    user,
+                    orderRequest.getCartItems(),
+                    orderRequest.getShippingAddress(),
+                    orderRequest.getPaymentMethod(),
+                    orderRequest.getNotes()
+                );
+                return ResponseEntity.accepted().body(order);
+            }
+
             Order order = orderService.createOrder(
                 user,
                 orderRequest.getCartItems(),
@@ -39,6 +77,13 @@ public class OrderController {
             );
 
             return ResponseEntity.ok(order);
+        } catch (CartValidationException e) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("message", "Failed to place order: " + e.getMessage());
+            body.put("errors", e.getErrors());
+            return ResponseEntity.badRequest().body(body);
+        } catch (OrderIntakeFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Failed to place order: " + e.getMessage());
         }
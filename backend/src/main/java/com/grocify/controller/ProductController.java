@@ -1,12 +1,28 @@
 package com.grocify.controller;
 
+import com.grocify.dto.CategoryNode;
+import com.grocify.dto.ProductFilter;
+import com.grocify.dto.ProductSuggestion;
+import com.grocify.dto.ProductSummary;
 import com.grocify.entity.Product;
+import com.grocify.service.CatalogJsonCache;
+import com.grocify.service.CatalogSnapshot;
+import com.grocify.service.ProductChangeFeed;
 import com.grocify.service.ProductService;
+import com.grocify.util.CategoryPath;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,29 +33,173 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogJsonCache catalogJsonCache;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    @Value("${catalog.preserialized-responses:true}")
+    private boolean preserializedResponses;
+
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) List<String> category,
+                                            @RequestParam(required = false) Boolean available,
+                                            @RequestParam(required = false) Double minPrice,
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @RequestParam(required = false) String unit,
+                                            @RequestParam(required = false) Double minUnitPrice,
+                                            @RequestParam(required = false) Double maxUnitPrice,
+                                            @RequestParam(required = false) String sort,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit,
+                                            ServletWebRequest request) {
+        CatalogSnapshot catalog = productService.getCatalog();
+        boolean filtered = category != null || available != null || minPrice != null || maxPrice != null
+                || unit != null || minUnitPrice != null || maxUnitPrice != null || sort != null;
+        boolean serialized = preserializedResponses && !filtered && after == null && limit == null;
+        if (serialized ? notModified(request, catalog.getETag(), acceptsGzip(request))
+                : notModified(request, catalog.getETag())) {
+            return null;
+        }
+        try {
+            if (filtered) {
+                ProductFilter filter = new ProductFilter(category, available != null ? available : true,
+                        minPrice, maxPrice, sort);
+                filter.setUnit(unit);
+                filter.setMinUnitPrice(minUnitPrice);
+                filter.setMaxUnitPrice(maxUnitPrice);
+                return ResponseEntity.ok(productService.filterProducts(filter, after, pageLimit(limit)));
+            }
+            if (after != null || limit != null) {
+                return ResponseEntity.ok(productService.getAllProductsPage(
+                        after != null ? Long.valueOf(after) : null, pageLimit(limit)));
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        if (serialized) {
+            return serializedResponse(catalogJsonCache.getAllProducts(catalog), acceptsGzip(request));
+        }
+        List<Product> products = catalog.getAvailableProducts();
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getProductsByIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Same as GET ?ids= for id lists too long for a query string
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupProducts(@RequestBody ProductLookupRequest lookupRequest) {
+        try {
+            List<Long> ids = lookupRequest.getIds() != null ? lookupRequest.getIds() : List.of();
+            return ResponseEntity.ok(productService.getProductsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, ServletWebRequest request) {
+        String eTag = productService.getCatalog().getProductETag(id);
+        if (notModified(request, eTag)) {
+            return null;
+        }
         Optional<Product> product = productService.getProductById(id);
         return product.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
+    // No ETag: the ranking follows popularity, which changes with orders and not with the catalog version
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ProductSummary>> getSimilarProducts(@PathVariable Long id,
+                                                                   @RequestParam(defaultValue = "8") int limit) {
+        if (productService.getCatalog().getProduct(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(productService.getSimilarProducts(id, limit));
+    }
+
+    // The path may span several levels, e.g. /category/Dairy & Eggs/Cheese, and covers the whole subtree
+    @GetMapping("/category/{*path}")
+    public ResponseEntity<?> getProductsByCategory(@PathVariable String path,
+                                                   @RequestParam(required = false) Long after,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   ServletWebRequest request) {
+        String category = CategoryPath.normalize(path);
+        if (category == null) {
+            return ResponseEntity.badRequest().body("Category path is required");
+        }
+        CatalogSnapshot catalog = productService.getCatalog();
+        boolean serialized = preserializedResponses && after == null && limit == null;
+        if (serialized ? notModified(request, catalog.getETag(), acceptsGzip(request))
+                : notModified(request, catalog.getETag())) {
+            return null;
+        }
+        if (after != null || limit != null) {
+            return ResponseEntity.ok(productService.getProductsByCategoryPage(category, after, pageLimit(limit)));
+        }
+        if (serialized) {
+            return serializedResponse(catalogJsonCache.getProductsByCategory(catalog, category), acceptsGzip(request));
+        }
+        List<ProductSummary> products = productService.getProductsByCategory(category);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.searchProducts(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> searchProducts(@RequestParam String name,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit,
+                                            ServletWebRequest request) {
+        if (notModified(request, productService.getCatalog().getETag())) {
+            return null;
+        }
+        try {
+            if (after != null || limit != null) {
+                return ResponseEntity.ok(productService.searchProductsPage(name, after, pageLimit(limit)));
+            }
+            List<ProductSummary> products = productService.searchProducts(name, ProductService.DEFAULT_PAGE_SIZE);
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(@RequestParam String prefix,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProducts(prefix, limit));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategoryNode>> getCategoryTree(ServletWebRequest request) {
+        if (notModified(request, productService.getCatalog().getETag())) {
+            return null;
+        }
+        return ResponseEntity.ok(productService.getCategoryTree());
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(ServletWebRequest request) {
+        if (notModified(request, productService.getCatalog().getETag())) {
+            return null;
+        }
+        return ResponseEntity.ok(productService.getFacets());
+    }
+
+    // Server-sent events; browsers resume through Last-Event-ID, other clients can pass the last id as ?since=
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) String since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // Makes sure the feed has seen the catalog load, so it knows the current version
+        productService.getCatalog();
+        return productChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
     }
 
     @PostMapping
@@ -64,4 +224,83 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    // Answers 304 from the in-memory version; on a 200 checkNotModified stamps the ETag instead
+    private static boolean notModified(ServletWebRequest request, String eTag) {
+        // Replaces Spring Security's no-store so browsers keep the body and revalidate it
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        return eTag != null && request.checkNotModified(eTag);
+    }
+
+    // For bodies served in either coding: each is a different representation, so each gets its own strong ETag
+    private static boolean notModified(ServletWebRequest request, String eTag, boolean gzip) {
+        request.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return notModified(request, gzip ? eTag.substring(0, eTag.length() - 1) + "-gzip\"" : eTag);
+    }
+
+    // True when gzip has a non-zero q-value, from its own entry or from *, and identity is not preferred over it
+    private static boolean acceptsGzip(ServletWebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        double identity = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality;
+            } else if (name.equals("*")) {
+                any = quality;
+            } else if (name.equals("identity")) {
+                identity = quality;
+            }
+        }
+        if (gzip < 0) {
+            gzip = Math.max(any, 0);
+        }
+        return gzip > 0 && gzip >= identity;
+    }
+
+    private static ResponseEntity<byte[]> serializedResponse(CatalogJsonCache.SerializedBody body, boolean gzip) {
+        byte[] bytes = gzip ? body.getGzip() : body.getIdentity();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(bytes.length)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(bytes);
+    }
+
+    private static int pageLimit(Integer limit) {
+        return limit != null ? limit : ProductService.DEFAULT_PAGE_SIZE;
+    }
+
+    public static class ProductLookupRequest {
+        private List<Long> ids;
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public void setIds(List<Long> ids) {
+            this.ids = ids;
+        }
+    }
+}
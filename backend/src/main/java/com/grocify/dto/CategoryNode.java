@@ -0,0 +1,57 @@
+package com.grocify.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CategoryNode {
+
+    private String name;
+    private String path;
+
+    // Available products in this category and all of its descendants
+    private int productCount;
+
+    private List<CategoryNode> children = new ArrayList<>();
+
+    // Constructors
+    public CategoryNode() {}
+
+    public CategoryNode(String name, String path, int productCount) {
+        this.name = name;
+        this.path = path;
+        this.productCount = productCount;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getProductCount() {
+        return productCount;
+    }
+
+    public void setProductCount(int productCount) {
+        this.productCount = productCount;
+    }
+
+    public List<CategoryNode> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<CategoryNode> children) {
+        this.children = children;
+    }
+}
@@ -0,0 +1,38 @@
+package com.grocify.dto;
+
+import com.grocify.entity.Product;
+
+import java.util.List;
+
+public class ProductBatchResponse {
+
+    // In the order the ids were requested
+    private List<Product> products;
+
+    private List<Long> missingIds;
+
+    // Constructors
+    public ProductBatchResponse() {}
+
+    public ProductBatchResponse(List<Product> products, List<Long> missingIds) {
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    // Getters and Setters
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
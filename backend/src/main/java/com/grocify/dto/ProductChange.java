@@ -0,0 +1,59 @@
+package com.grocify.dto;
+
+import com.grocify.entity.Product;
+
+public class ProductChange {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+
+    private long version;
+    private String type;
+    private Long productId;
+    // Null for deletions
+    private Product product;
+
+    // Constructors
+    public ProductChange() {}
+
+    public ProductChange(long version, String type, Long productId, Product product) {
+        this.version = version;
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+    }
+
+    // Getters and Setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+}
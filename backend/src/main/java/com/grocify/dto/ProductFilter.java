@@ -0,0 +1,106 @@
+package com.grocify.dto;
+
+import java.util.List;
+
+public class ProductFilter {
+
+    public static final String SORT_ID = "id";
+    public static final String SORT_PRICE_ASC = "price_asc";
+    public static final String SORT_PRICE_DESC = "price_desc";
+    public static final String SORT_UNIT_PRICE_ASC = "unit_price_asc";
+    public static final String SORT_UNIT_PRICE_DESC = "unit_price_desc";
+
+    private List<String> categories;
+
+    // null matches products regardless of availability
+    private Boolean available;
+
+    private Double minPrice;
+
+    private Double maxPrice;
+
+    // kg, l or piece; required by the unit price bounds and sorts, since prices per kg and per litre do not compare
+    private String unit;
+
+    private Double minUnitPrice;
+
+    private Double maxUnitPrice;
+
+    private String sort = SORT_ID;
+
+    // Constructors
+    public ProductFilter() {}
+
+    public ProductFilter(List<String> categories, Boolean available, Double minPrice, Double maxPrice, String sort) {
+        this.categories = categories;
+        this.available = available;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.sort = sort != null ? sort : SORT_ID;
+    }
+
+    // Getters and Setters
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(List<String> categories) {
+        this.categories = categories;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public Double getMinUnitPrice() {
+        return minUnitPrice;
+    }
+
+    public void setMinUnitPrice(Double minUnitPrice) {
+        this.minUnitPrice = minUnitPrice;
+    }
+
+    public Double getMaxUnitPrice() {
+        return maxUnitPrice;
+    }
+
+    public void setMaxUnitPrice(Double maxUnitPrice) {
+        this.maxUnitPrice = maxUnitPrice;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+}
@@ -0,0 +1,36 @@
+package com.grocify.dto;
+
+import java.util.List;
+
+public class ProductPage<T> {
+
+    private List<T> items;
+
+    // Pass back as `after` to fetch the next page; null on the last page
+    private String nextCursor;
+
+    // Constructors
+    public ProductPage() {}
+
+    public ProductPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,42 @@
+package com.grocify.dto;
+
+public class ProductSuggestion {
+
+    private Long id;
+    private String name;
+    private String category;
+
+    // Constructors
+    public ProductSuggestion() {}
+
+    public ProductSuggestion(Long id, String name, String category) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+}
@@ -0,0 +1,106 @@
+package com.grocify.dto;
+
+import com.grocify.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Listing view of a product: what the product grid renders, without the description
+public class ProductSummary {
+
+    private Long id;
+    private String name;
+    private Double price;
+    private String imageUrl;
+    private String category;
+    private boolean available;
+    private String unitType;
+    private Double unitPrice;
+
+    // Constructors
+    public ProductSummary() {}
+
+    public ProductSummary(Product product) {
+        this.id = product.getId();
+        this.name = product.getName();
+        this.price = product.getPrice();
+        this.imageUrl = product.getImageUrl();
+        this.category = product.getCategory();
+        this.available = product.isAvailable();
+        this.unitType = product.getUnitType();
+        this.unitPrice = product.getUnitPrice();
+    }
+
+    public static List<ProductSummary> of(List<Product> products) {
+        List<ProductSummary> summaries = new ArrayList<>(products.size());
+        for (Product product : products) {
+            summaries.add(new ProductSummary(product));
+        }
+        return summaries;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public String getUnitType() {
+        return unitType;
+    }
+
+    public void setUnitType(String unitType) {
+        this.unitType = unitType;
+    }
+
+    public Double getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(Double unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+}
@@ -0,0 +1,21 @@
+package com.grocify.entity;
+
+import com.grocify.service.AllocatedIdGenerator;
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ids taken from the IdAllocator, from the id_generators row named by value (the
+ * entity's table name), so Hibernate inserts and JDBC inserts share one id space.
+ */
+@IdGeneratorType(AllocatedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface AllocatedId {
+
+    String value();
+}
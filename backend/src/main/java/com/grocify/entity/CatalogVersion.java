@@ -0,0 +1,39 @@
+package com.grocify.entity;
+
+import jakarta.persistence.*;
+
+// Single-row counter bumped on every product write, polled by each node to detect writes made elsewhere
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersion {
+
+    @Id
+    private Long id;
+
+    private long version;
+
+    // Constructors
+    public CatalogVersion() {}
+
+    public CatalogVersion(Long id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
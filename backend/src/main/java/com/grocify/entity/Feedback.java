@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 public class Feedback {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @AllocatedId("feedback")
     private Long id;
     
     @ManyToOne
@@ -0,0 +1,39 @@
+package com.grocify.entity;
+
+import jakarta.persistence.*;
+
+// Stock not yet leased to any node; products without a row are not stock-tracked
+@Entity
+@Table(name = "inventory")
+public class Inventory {
+
+    @Id
+    private Long productId;
+
+    private int stock;
+
+    // Constructors
+    public Inventory() {}
+
+    public Inventory(Long productId, int stock) {
+        this.productId = productId;
+        this.stock = stock;
+    }
+
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public void setStock(int stock) {
+        this.stock = stock;
+    }
+}
@@ -6,17 +6,24 @@ import java.util.List;
 
 @Entity
 @Table(name = "orders")
+// Items and their products are lazy; queries that return orders to clients fetch them with this graph in the same query
+@NamedEntityGraph(name = Order.WITH_ITEMS,
+        attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode(value = "orderItems", subgraph = "items")},
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product")))
 public class Order {
+
+    public static final String WITH_ITEMS = "Order.withItems";
+
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @AllocatedId("orders")
     private Long id;
     
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private List<OrderItem> orderItems;
     
     private Double totalAmount;
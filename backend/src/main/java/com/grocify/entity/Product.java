@@ -1,17 +1,24 @@
 package com.grocify.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.grocify.util.CategoryPath;
+import com.grocify.util.UnitPriceParser;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_category", columnList = "category"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Product {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @AllocatedId("products")
     private Long id;
     
     @NotBlank
@@ -27,10 +34,18 @@ public class Product {
     
     private String description;
     
+    // Materialized path such as "Dairy & Eggs/Cheese", see CategoryPath
     private String category;
     
     private boolean available = true;
     
+    // Derived from the pack size in the name on every write, see UnitPriceParser
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String unitType;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Double unitPrice;
+    
     // Constructors
     public Product() {}
     
@@ -41,6 +56,19 @@ public class Product {
         this.available = true;
     }
     
+    @PrePersist
+    @PreUpdate
+    public void updateUnitPrice() {
+        UnitPriceParser.PackSize pack = UnitPriceParser.parse(name);
+        if (pack == null || price == null) {
+            unitType = null;
+            unitPrice = null;
+        } else {
+            unitType = pack.getUnit();
+            unitPrice = UnitPriceParser.unitPrice(price, pack);
+        }
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -87,7 +115,7 @@ public class Product {
     }
     
     public void setCategory(String category) {
-        this.category = category;
+        this.category = CategoryPath.normalize(category);
     }
     
     public boolean isAvailable() {
@@ -97,4 +125,20 @@ public class Product {
     public void setAvailable(boolean available) {
         this.available = available;
     }
+    
+    public String getUnitType() {
+        return unitType;
+    }
+    
+    public void setUnitType(String unitType) {
+        this.unitType = unitType;
+    }
+    
+    public Double getUnitPrice() {
+        return unitPrice;
+    }
+    
+    public void setUnitPrice(Double unitPrice) {
+        this.unitPrice = unitPrice;
+    }
 }
@@ -0,0 +1,20 @@
+package com.grocify.repository;
+
+import com.grocify.entity.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Long> {
+    @Modifying
+    @Query("update CatalogVersion v set v.version = v.version + 1 where v.id = :id")
+    int increment(@Param("id") Long id);
+
+    @Query("select v.version from CatalogVersion v where v.id = :id")
+    Optional<Long> findVersion(@Param("id") Long id);
+}
@@ -0,0 +1,36 @@
+package com.grocify.repository;
+
+import com.grocify.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+    // A plain insert, so a key already claimed by another request fails on the primary key instead of being merged
+    @Modifying
+    @Query(value = "insert into idempotency_keys (scope, request_hash, status, created_at) values (:scope, :requestHash, 'IN_PROGRESS', :createdAt)",
+            nativeQuery = true)
+    int claim(@Param("scope") String scope, @Param("requestHash") String requestHash, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query("update IdempotencyKey k set k.status = 'COMPLETED', k.responseStatus = :responseStatus, k.responseBody = :responseBody where k.scope = :scope")
+    int complete(@Param("scope") String scope, @Param("responseStatus") int responseStatus, @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.status = 'IN_PROGRESS' and k.createdAt < :cutoff")
+    int deleteInProgressCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Deletes nothing once the claim has completed or is no longer older than the cutoff
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.scope = :scope and k.status = 'IN_PROGRESS' and k.createdAt < :cutoff")
+    int deleteInProgressClaim(@Param("scope") String scope, @Param("cutoff") LocalDateTime cutoff);
+}
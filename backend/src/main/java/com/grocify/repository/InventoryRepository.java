@@ -0,0 +1,30 @@
+package com.grocify.repository;
+
+import com.grocify.entity.Inventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+    // Conditional decrement: updates nothing, and takes no stock, when fewer than quantity units are left
+    @Modifying
+    @Query("update Inventory i set i.stock = i.stock - :quantity where i.productId = :productId and i.stock >= :quantity")
+    int take(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("update Inventory i set i.stock = i.stock + :quantity where i.productId = :productId")
+    int give(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Query("select i.stock from Inventory i where i.productId = :productId")
+    Optional<Integer> findStock(@Param("productId") Long productId);
+
+    @Query("select i.productId from Inventory i where i.productId in :productIds")
+    List<Long> findTrackedProductIds(@Param("productIds") Collection<Long> productIds);
+}
@@ -2,19 +2,33 @@ package com.grocify.repository;
 
 import com.grocify.entity.Order;
 import com.grocify.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    
+
+    @Override
+    @EntityGraph(Order.WITH_ITEMS)
+    Optional<Order> findById(Long id);
+
+    @EntityGraph(Order.WITH_ITEMS)
     List<Order> findByUserOrderByOrderDateDesc(User user);
-    
+
+    @EntityGraph(Order.WITH_ITEMS)
     List<Order> findByStatus(String status);
-    
+
+    @EntityGraph(Order.WITH_ITEMS)
     List<Order> findByUserAndStatus(User user, String status);
+
+    // [productId, total quantity ordered] for every product that has been ordered
+    @Query("select oi.product.id, sum(oi.quantity) from OrderItem oi group by oi.product.id")
+    List<Object[]> sumQuantityByProduct();
 }
 
 
@@ -1,15 +1,30 @@
 package com.grocify.repository;
 
 import com.grocify.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByAvailableTrue();
+
     List<Product> findByCategory(String category);
+
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    // Forward-only read of the whole table for exports; on MySQL the fetch size needs useCursorFetch=true
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAll();
 }
 
@@ -0,0 +1,45 @@
+package com.grocify.service;
+
+import com.grocify.entity.AllocatedId;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Generator behind {@link AllocatedId}. Hibernate creates it, so the IdAllocator is
+ * handed over through the persistence unit's properties.
+ */
+public class AllocatedIdGenerator implements BeforeExecutionGenerator {
+
+    static final String ID_ALLOCATOR_PROPERTY = "grocify.id-allocator";
+
+    private final String segment;
+
+    private final IdAllocator idAllocator;
+
+    public AllocatedIdGenerator(AllocatedId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.segment = config.value();
+        Object idAllocator = context.getServiceRegistry().getService(ConfigurationService.class)
+                .getSettings().get(ID_ALLOCATOR_PROPERTY);
+        if (!(idAllocator instanceof IdAllocator)) {
+            throw new IllegalStateException("No IdAllocator in the persistence unit properties under " + ID_ALLOCATOR_PROPERTY);
+        }
+        this.idAllocator = (IdAllocator) idAllocator;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return idAllocator.next(segment);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
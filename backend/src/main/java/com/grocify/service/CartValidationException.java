@@ -0,0 +1,43 @@
+package com.grocify.service;
+
+import java.util.List;
+
+// Thrown before anything is written when one or more cart lines cannot be ordered
+public class CartValidationException extends RuntimeException {
+
+    private final List<LineError> errors;
+
+    public CartValidationException(List<LineError> errors) {
+        super(errors.size() == 1 ? "1 cart line cannot be ordered" : errors.size() + " cart lines cannot be ordered");
+        this.errors = errors;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public static class LineError {
+        // Position of the line in the submitted cart; for merged duplicates, the first of them
+        private final int line;
+        private final Long productId;
+        private final String message;
+
+        public LineError(int line, Long productId, String message) {
+            this.line = line;
+            this.productId = productId;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public Long getProductId() {
+            return productId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
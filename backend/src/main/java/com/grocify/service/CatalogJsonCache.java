@@ -0,0 +1,98 @@
+package com.grocify.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocify.dto.ProductSummary;
+import com.grocify.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds the JSON bodies of the catalog and category listings for one catalog version,
+ * serialized once and kept both plain and gzip-compressed. Entries for an older
+ * version are dropped as soon as a newer snapshot is requested.
+ */
+@Component
+public class CatalogJsonCache {
+
+    private static final String ALL_PRODUCTS = "";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Generation generation = new Generation(-1);
+
+    public SerializedBody getAllProducts(CatalogSnapshot snapshot) {
+        return get(snapshot, ALL_PRODUCTS, snapshot.getAvailableProducts(), false);
+    }
+
+    public SerializedBody getProductsByCategory(CatalogSnapshot snapshot, String category) {
+        return get(snapshot, "category:" + category, snapshot.getProductsByCategory(category), true);
+    }
+
+    private SerializedBody get(CatalogSnapshot snapshot, String key, List<Product> products, boolean summaries) {
+        if (products.isEmpty()) {
+            // Unknown categories are not worth a cache slot
+            return serialize(products, summaries);
+        }
+        Generation current = generation;
+        if (current.version != snapshot.getVersion()) {
+            if (current.version > snapshot.getVersion()) {
+                return serialize(products, summaries);
+            }
+            current = new Generation(snapshot.getVersion());
+            generation = current;
+        }
+        return current.bodies.computeIfAbsent(key, ignored -> serialize(products, summaries));
+    }
+
+    private SerializedBody serialize(List<Product> products, boolean summaries) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(summaries ? ProductSummary.of(products) : products);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, identity.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(identity);
+            }
+            return new SerializedBody(identity, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Generation {
+        private final long version;
+        private final Map<String, SerializedBody> bodies = new ConcurrentHashMap<>();
+
+        private Generation(long version) {
+            this.version = version;
+        }
+    }
+
+    public static final class SerializedBody {
+        private final byte[] identity;
+        private final byte[] gzip;
+
+        public SerializedBody(byte[] identity, byte[] gzip) {
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+
+        public byte[] getIdentity() {
+            return identity;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+
+/**
+ * Receives every catalog change published by {@link ProductService}. Callbacks run
+ * on the writing thread while the catalog write lock is held, just before the new
+ * snapshot is made visible to readers, so indexes never lag behind the catalog.
+ */
+public interface CatalogListener {
+
+    void onCatalogLoaded(CatalogSnapshot snapshot);
+
+    /**
+     * @param previous the product as it was before this write, or {@code null} for an insert
+     */
+    void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot);
+
+    void onProductDeleted(Product removed, CatalogSnapshot snapshot);
+}
@@ -0,0 +1,31 @@
+package com.grocify.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Applies product writes made by other nodes; reloading the catalog also drops the Product second-level and query caches
+@Component
+public class CatalogRefreshTask {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogRefreshTask.class);
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ProductService productService;
+
+    // Loading the catalog records the version it was read at, so there is nothing to poll for at startup
+    @Scheduled(fixedDelayString = "${catalog.version-poll-interval-ms:5000}",
+            initialDelayString = "${catalog.version-poll-interval-ms:5000}")
+    public void refreshOnRemoteChanges() {
+        if (!catalogVersionService.pollForRemoteChanges()) {
+            return;
+        }
+        log.info("Catalog changed on another node, reloading");
+        productService.refreshCatalog();
+    }
+}
@@ -0,0 +1,148 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import com.grocify.util.CategoryPath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, versioned view of the whole product catalog. A new snapshot is
+ * built for every write and swapped in atomically by {@link ProductService},
+ * so readers never see a partially applied change.
+ */
+public final class CatalogSnapshot {
+
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+    private final long version;
+    private final List<Product> products;
+    private final List<Product> availableProducts;
+    private final Map<Long, Product> productsById;
+    private final Map<String, List<Product>> productsByCategory;
+    private final Map<Long, Long> productVersions;
+
+    private CatalogSnapshot(long version, List<Product> sortedProducts, Map<Long, Long> productVersions) {
+        this.version = version;
+        this.products = Collections.unmodifiableList(sortedProducts);
+        this.productVersions = productVersions;
+
+        List<Product> available = new ArrayList<>();
+        Map<Long, Product> byId = new HashMap<>(sortedProducts.size() * 2);
+        Map<String, List<Product>> byCategory = new HashMap<>();
+        for (Product product : sortedProducts) {
+            byId.put(product.getId(), product);
+            if (product.isAvailable()) {
+                available.add(product);
+            }
+            if (product.getCategory() != null) {
+                for (String path : CategoryPath.lineage(product.getCategory())) {
+                    byCategory.computeIfAbsent(path, key -> new ArrayList<>()).add(product);
+                }
+            }
+        }
+        byCategory.replaceAll((category, list) -> Collections.unmodifiableList(list));
+
+        this.availableProducts = Collections.unmodifiableList(available);
+        this.productsById = Collections.unmodifiableMap(byId);
+        this.productsByCategory = Collections.unmodifiableMap(byCategory);
+    }
+
+    /**
+     * @param version the shared catalog version the products were read at, so every node that
+     *                loaded the same version hands out the same ETags
+     */
+    public static CatalogSnapshot of(long version, Collection<Product> products) {
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(BY_ID);
+        Map<Long, Long> versions = new HashMap<>(sorted.size() * 2);
+        for (Product product : sorted) {
+            versions.put(product.getId(), version);
+        }
+        return new CatalogSnapshot(version, sorted, versions);
+    }
+
+    public CatalogSnapshot withProduct(long newVersion, Product product) {
+        List<Product> next = new ArrayList<>(products.size() + 1);
+        next.addAll(products);
+        int index = Collections.binarySearch(next, product, BY_ID);
+        if (index >= 0) {
+            next.set(index, product);
+        } else {
+            next.add(-index - 1, product);
+        }
+        Map<Long, Long> versions = new HashMap<>(productVersions);
+        versions.put(product.getId(), newVersion);
+        return new CatalogSnapshot(newVersion, next, versions);
+    }
+
+    public CatalogSnapshot withoutProduct(long newVersion, Long productId) {
+        List<Product> next = new ArrayList<>(products);
+        next.removeIf(product -> product.getId().equals(productId));
+        Map<Long, Long> versions = new HashMap<>(productVersions);
+        versions.remove(productId);
+        return new CatalogSnapshot(newVersion, next, versions);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public List<Product> getAvailableProducts() {
+        return availableProducts;
+    }
+
+    public Optional<Product> getProduct(Long id) {
+        return Optional.ofNullable(productsById.get(id));
+    }
+
+    // The whole subtree under the category path, in id order
+    public List<Product> getProductsByCategory(String category) {
+        return productsByCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    // Strong validator for any representation derived from the whole catalog
+    public String getETag() {
+        return "\"" + version + "\"";
+    }
+
+    // Changes only when this product itself is written
+    public String getProductETag(Long id) {
+        Long productVersion = productVersions.get(id);
+        return productVersion == null ? null : "\"" + productVersion + "-" + id + "\"";
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    // Keyset page over any of this snapshot's id-sorted lists; returns up to limit + 1 items
+    // so callers can tell whether another page follows
+    public static List<Product> pageAfter(List<Product> idSorted, Long afterId, int limit) {
+        int from = 0;
+        if (afterId != null) {
+            int low = 0;
+            int high = idSorted.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (idSorted.get(mid).getId() <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            from = low;
+        }
+        return idSorted.subList(from, Math.min(idSorted.size(), from + limit + 1));
+    }
+}
@@ -0,0 +1,100 @@
+package com.grocify.service;
+
+import com.grocify.repository.CatalogVersionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Shared catalog change counter in the catalog_version table. Every node bumps it after
+ * writing products and polls it to find out about writes made by other nodes, so caches
+ * stay coherent across nodes without a message broker.
+ */
+@Service
+public class CatalogVersionService {
+
+    private static final Long ROW_ID = 1L;
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Highest version whose changes this node has applied; -1 until the first poll
+    private long appliedVersion = -1;
+
+    /**
+     * Bumps the shared version and returns it. Joins the caller's transaction, so a product
+     * write and the version that tags it commit together and a node that reads both in one
+     * transaction sees either both or neither.
+     */
+    public long publish() {
+        return transactionTemplate.execute(status -> {
+            catalogVersionRepository.increment(ROW_ID);
+            return catalogVersionRepository.findVersion(ROW_ID).orElse(0L);
+        });
+    }
+
+    // The version of what is committed now; read it in the same transaction as the products
+    public long currentVersion() {
+        return catalogVersionRepository.findVersion(ROW_ID).orElse(0L);
+    }
+
+    /**
+     * Records that this node applied its own write, published as the given version. Returns
+     * false when another node wrote in between, in which case the caller has to reload.
+     */
+    public synchronized boolean appliedWrite(long version) {
+        if (version != appliedVersion + 1) {
+            return false;
+        }
+        appliedVersion = version;
+        return true;
+    }
+
+    // Records that this node loaded the whole catalog as of the given version
+    public synchronized void appliedLoad(long version) {
+        appliedVersion = Math.max(appliedVersion, version);
+    }
+
+    /**
+     * Returns true when another node has changed the catalog since the last call. The
+     * caller is expected to drop its caches before calling again.
+     */
+    public boolean pollForRemoteChanges() {
+        long version = catalogVersionRepository.findVersion(ROW_ID).orElse(0L);
+        synchronized (this) {
+            if (appliedVersion < 0) {
+                appliedVersion = version;
+                return false;
+            }
+            if (version == appliedVersion) {
+                return false;
+            }
+            appliedVersion = version;
+            return true;
+        }
+    }
+
+    // Before any catalog load, whose read-only transaction could not insert it
+    @PostConstruct
+    void ensureRow() {
+        if (!catalogVersionRepository.existsById(ROW_ID)) {
+            try {
+                // Starting from the clock rather than 0 keeps ETags handed out before the database was
+                // recreated from matching the new catalog
+                jdbcTemplate.update("INSERT INTO catalog_version (id, version) VALUES (?, ?)", ROW_ID,
+                        System.currentTimeMillis());
+            } catch (DuplicateKeyException e) {
+                // Another node created it first
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.grocify.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out ids from the id_generators table, to the entities (see AllocatedId) and to
+ * code that inserts through JDBC. The table keeps the layout of Hibernate's pooled
+ * @TableGenerator, which with next_val = N has handed out no id above N - ALLOCATION_SIZE.
+ * Reserving K ids hands out [N - ALLOCATION_SIZE + 2, N - ALLOCATION_SIZE + 2 + K) and
+ * moves next_val to N + K, so the next reservation starts right after; the one id in
+ * between, N - ALLOCATION_SIZE + 1, is never used.
+ * Entities take ids one at a time from a block of ALLOCATION_SIZE held in memory. Blocks
+ * are reserved on the allocator's own connections: an id is needed while the inserting
+ * transaction holds a pooled connection, and waiting for a second one from the same pool
+ * deadlocks once every connection is held by such a transaction.
+ */
+@Component
+public class IdAllocator implements HibernatePropertiesCustomizer {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final HikariDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Ids reserved by this node and not handed out yet, by segment
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdAllocator(DataSourceProperties dataSourceProperties, @Value("${id-allocator.pool-size:2}") int poolSize) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("id-allocator");
+        this.dataSource.setMaximumPoolSize(poolSize);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    // Created here rather than by Hibernate, which no longer maps a table generator to it
+    @PostConstruct
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS id_generators"
+                + " (sequence_name VARCHAR(255) NOT NULL, next_val BIGINT, PRIMARY KEY (sequence_name))");
+    }
+
+    @PreDestroy
+    public void close() {
+        dataSource.close();
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AllocatedIdGenerator.ID_ALLOCATOR_PROPERTY, this);
+    }
+
+    // The next id of the segment (the entity's table name) from this node's block
+    public long next(String segment) {
+        Block block = blocks.computeIfAbsent(segment, name -> new Block());
+        synchronized (block) {
+            if (block.next > block.last) {
+                block.next = reserve(segment, ALLOCATION_SIZE);
+                block.last = block.next + ALLOCATION_SIZE - 1;
+            }
+            return block.next++;
+        }
+    }
+
+    // Reserves count consecutive ids for the segment and returns the first
+    public long reserve(String segment, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        return transactionTemplate.execute(status -> {
+            long nextValue = lockNextValue(segment);
+            jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE sequence_name = ?", nextValue + count, segment);
+            return nextValue - ALLOCATION_SIZE + 2;
+        });
+    }
+
+    // Moves the segment past maxId, so that ids already used by existing rows are never handed out
+    public void ensureAbove(String segment, long maxId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long floor = maxId + ALLOCATION_SIZE;
+            if (lockNextValue(segment) < floor) {
+                jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE sequence_name = ?", floor, segment);
+            }
+        });
+    }
+
+    private long lockNextValue(String segment) {
+        List<Long> values = jdbcTemplate.queryForList(
+                "SELECT next_val FROM id_generators WHERE sequence_name = ? FOR UPDATE", Long.class, segment);
+        if (!values.isEmpty()) {
+            return values.get(0);
+        }
+        jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?)", segment, ALLOCATION_SIZE);
+        return ALLOCATION_SIZE;
+    }
+
+    private static final class Block {
+
+        // [next, last] are still free; empty until the first reservation
+        private long next = 1;
+
+        private long last = 0;
+    }
+}
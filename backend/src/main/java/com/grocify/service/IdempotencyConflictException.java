@@ -0,0 +1,18 @@
+package com.grocify.service;
+
+import org.springframework.http.HttpStatus;
+
+// An Idempotency-Key that cannot be honoured: reused for a different request, or still being processed elsewhere
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public IdempotencyConflictException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,242 @@
+package com.grocify.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocify.entity.IdempotencyKey;
+import com.grocify.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key. Keys are claimed with a row in
+ * idempotency_keys before the request runs, so retries reaching any node find it, and
+ * the successful response is stored on the row for replay. Recent keys are also kept in
+ * a bounded in-memory LRU: a retry that arrives on this node while the first attempt is
+ * still running waits for its response instead of reaching the database at all.
+ * Failed responses are not kept, so the client can retry them with the same key. A claim
+ * still in progress after in-progress-timeout-seconds belongs to a request that died or
+ * could not store its response; a retry then takes it over instead of getting 409 until
+ * the key expires.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.in-progress-timeout-seconds:300}")
+    private long inProgressTimeoutSeconds;
+
+    private final Map<String, Entry> entries;
+
+    public IdempotencyService(@Value("${idempotency.cache-size:10000}") int cacheSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public ResponseEntity<?> execute(Long userId, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String scope = userId + ":" + key;
+        String requestHash = hash(request);
+
+        CompletableFuture<ResponseEntity<?>> own = new CompletableFuture<>();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(scope);
+            if (entry == null) {
+                entries.put(scope, new Entry(requestHash, own));
+            }
+        }
+        if (entry != null) {
+            checkSameRequest(entry.requestHash, requestHash);
+            return replayed(await(entry.response));
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = claimAndRun(scope, requestHash, action);
+        } catch (RuntimeException e) {
+            forget(scope);
+            own.completeExceptionally(e);
+            throw e;
+        }
+        own.complete(response);
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            forget(scope);
+        }
+        return response;
+    }
+
+    // Drops keys past their retention, and abandoned claims; a retry after that runs as a new request
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(ttlHours))
+                        + idempotencyKeyRepository.deleteInProgressCreatedBefore(inProgressCutoff()));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private ResponseEntity<?> claimAndRun(String scope, String requestHash, Supplier<ResponseEntity<?>> action) {
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        idempotencyKeyRepository.claim(scope, requestHash, LocalDateTime.now()));
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Claimed by an earlier request, possibly on another node, unless that one has failed since
+                Optional<IdempotencyKey> claimed = idempotencyKeyRepository.findById(scope);
+                if (claimed.isPresent()) {
+                    if (isAbandoned(claimed.get()) && transactionTemplate.execute(status ->
+                            idempotencyKeyRepository.deleteInProgressClaim(scope, inProgressCutoff())) > 0) {
+                        continue;
+                    }
+                    return storedResponse(claimed.get(), requestHash);
+                }
+            }
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(scope);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            release(scope);
+            return response;
+        }
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotencyKeyRepository.complete(scope, response.getStatusCode().value(), body));
+        } catch (JsonProcessingException | DataAccessException | TransactionException e) {
+            // The request did run: leave the key claimed rather than let a retry run it again before it is abandoned
+            log.warn("Could not store the response for idempotency key {}", scope, e);
+        }
+        return response;
+    }
+
+    private boolean isAbandoned(IdempotencyKey claimed) {
+        return IdempotencyKey.IN_PROGRESS.equals(claimed.getStatus()) && claimed.getCreatedAt().isBefore(inProgressCutoff());
+    }
+
+    private LocalDateTime inProgressCutoff() {
+        return LocalDateTime.now().minusSeconds(inProgressTimeoutSeconds);
+    }
+
+    private ResponseEntity<?> storedResponse(IdempotencyKey stored, String requestHash) {
+        checkSameRequest(stored.getRequestHash(), requestHash);
+        if (!IdempotencyKey.COMPLETED.equals(stored.getStatus())) {
+            throw new IdempotencyConflictException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+        }
+        return ResponseEntity.status(stored.getResponseStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(stored.getResponseBody());
+    }
+
+    private void release(String scope) {
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteById(scope));
+    }
+
+    private void forget(String scope) {
+        synchronized (entries) {
+            entries.remove(scope);
+        }
+    }
+
+    private static void checkSameRequest(String claimedHash, String requestHash) {
+        if (!claimedHash.equals(requestHash)) {
+            throw new IdempotencyConflictException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private static ResponseEntity<?> await(CompletableFuture<ResponseEntity<?>> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static ResponseEntity<?> replayed(ResponseEntity<?> response) {
+        if (response.getHeaders().containsKey(REPLAYED_HEADER)) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash the request", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String requestHash;
+
+        private final CompletableFuture<ResponseEntity<?>> response;
+
+        private Entry(String requestHash, CompletableFuture<ResponseEntity<?>> response) {
+            this.requestHash = requestHash;
+            this.response = response;
+        }
+    }
+}
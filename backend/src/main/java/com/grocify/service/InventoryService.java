@@ -0,0 +1,232 @@
+package com.grocify.service;
+
+import com.grocify.entity.Inventory;
+import com.grocify.repository.InventoryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock reservation without a row lock per order. Each node leases stock from the
+ * inventory table a chunk at a time with a conditional decrement, and serves orders
+ * from the leased units, kept in per-product counters striped by thread so hot products
+ * do not contend on a single counter either. Only when a node's lease runs dry does an
+ * order touch the database; when stock is too low for a whole chunk, exactly the units
+ * needed are taken. Leased units are returned on shutdown; a crash loses them, which
+ * undersells but never oversells.
+ * Products without an inventory row are not stock-tracked. Any node may create the row,
+ * so until a product is seen with one, every order looks it up, with one query for all
+ * of its products; rows are never removed, so once tracked a product needs no further check.
+ */
+@Service
+public class InventoryService {
+
+    private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Value("${inventory.lease-size:20}")
+    private int leaseSize;
+
+    private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public InventoryService(PlatformTransactionManager transactionManager) {
+        // Leases belong to the node, not to the order that happened to take them
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Takes quantity units of the product, or returns null if fewer are left. Products
+     * without an inventory row are not stock-tracked and always succeed. Callers hand the
+     * units back with {@link #release} if the order is not written after all.
+     */
+    public Reservation reserve(Long productId, int quantity) {
+        return reserveAll(Map.of(productId, quantity)).get(productId);
+    }
+
+    /**
+     * Like {@link #reserve} for every product of an order, with a single lookup of the
+     * inventory rows of products not yet known to be tracked. The result has a reservation
+     * for each product that could be reserved; products left out are short of stock.
+     */
+    public Map<Long, Reservation> reserveAll(Map<Long, Integer> quantities) {
+        List<Long> unknown = new ArrayList<>();
+        for (Long productId : quantities.keySet()) {
+            if (!stocks.computeIfAbsent(productId, id -> new Stock()).tracked) {
+                unknown.add(productId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (Long productId : inventoryRepository.findTrackedProductIds(unknown)) {
+                stocks.get(productId).tracked = true;
+            }
+        }
+
+        Map<Long, Reservation> reservations = new HashMap<>();
+        int home = homeStripe();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            int quantity = entry.getValue();
+            Stock stock = stocks.get(productId);
+            if (!stock.tracked) {
+                reservations.put(productId, new Reservation(productId, 0));
+            } else if (stock.tryTake(home, quantity) || refill(stock, productId, quantity, home)) {
+                reservations.put(productId, new Reservation(productId, quantity));
+            }
+        }
+        return reservations;
+    }
+
+    // Puts reserved units back into this node's lease
+    public void release(Reservation reservation) {
+        if (reservation.units > 0) {
+            stocks.get(reservation.productId).stripes[homeStripe()].addAndGet(reservation.units);
+        }
+    }
+
+    public void addStock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (inventoryRepository.give(productId, quantity) == 0) {
+                    inventoryRepository.save(new Inventory(productId, quantity));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another restock created the row first
+            transactionTemplate.executeWithoutResult(status -> inventoryRepository.give(productId, quantity));
+        }
+    }
+
+    public Map<String, Object> getStock(Long productId) {
+        Optional<Integer> unleased = inventoryRepository.findStock(productId);
+        Stock stock = stocks.get(productId);
+        int leased = stock != null ? stock.held() : 0;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("productId", productId);
+        result.put("tracked", unleased.isPresent());
+        result.put("unleased", unleased.orElse(0));
+        result.put("leasedHere", leased);
+        return result;
+    }
+
+    @PreDestroy
+    public void returnLeases() {
+        stocks.forEach((productId, stock) -> {
+            int held = stock.drain();
+            if (held > 0) {
+                transactionTemplate.executeWithoutResult(status -> inventoryRepository.give(productId, held));
+            }
+        });
+    }
+
+    // Takes quantity units for a tracked product whose lease here ran short; false when out of stock
+    private boolean refill(Stock stock, Long productId, int quantity, int home) {
+        synchronized (stock) {
+            // Another thread may have refilled while this one waited
+            if (stock.tryTake(home, quantity)) {
+                return true;
+            }
+            int lease = Math.max(quantity, leaseSize);
+            if (take(productId, lease)) {
+                stock.stripes[home].addAndGet(lease - quantity);
+                return true;
+            }
+            // Too little left for a whole lease: combine what the stripes hold with exactly the rest
+            int held = stock.drain();
+            if (held >= quantity || take(productId, quantity - held)) {
+                stock.stripes[home].addAndGet(Math.max(0, held - quantity));
+                return true;
+            }
+            stock.stripes[home].addAndGet(held);
+            return false;
+        }
+    }
+
+    private boolean take(Long productId, int quantity) {
+        return transactionTemplate.execute(status -> inventoryRepository.take(productId, quantity)) > 0;
+    }
+
+    private static int homeStripe() {
+        return (int) Thread.currentThread().getId() & (STRIPES - 1);
+    }
+
+    public static final class Reservation {
+
+        private final Long productId;
+
+        // Zero for products that are not stock-tracked
+        private final int units;
+
+        private Reservation(Long productId, int units) {
+            this.productId = productId;
+            this.units = units;
+        }
+    }
+
+    private static final class Stock {
+
+        private final AtomicInteger[] stripes = new AtomicInteger[STRIPES];
+
+        // Set once the product is seen with an inventory row
+        private volatile boolean tracked;
+
+        private Stock() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new AtomicInteger();
+            }
+        }
+
+        // Takes quantity from a single stripe, starting with the caller's own
+        private boolean tryTake(int home, int quantity) {
+            for (int i = 0; i < STRIPES; i++) {
+                AtomicInteger stripe = stripes[(home + i) & (STRIPES - 1)];
+                int units = stripe.get();
+                while (units >= quantity) {
+                    if (stripe.compareAndSet(units, units - quantity)) {
+                        return true;
+                    }
+                    units = stripe.get();
+                }
+            }
+            return false;
+        }
+
+        private int drain() {
+            int held = 0;
+            for (AtomicInteger stripe : stripes) {
+                held += stripe.getAndSet(0);
+            }
+            return held;
+        }
+
+        private int held() {
+            int held = 0;
+            for (AtomicInteger stripe : stripes) {
+                held += stripe.get();
+            }
+            return held;
+        }
+    }
+}
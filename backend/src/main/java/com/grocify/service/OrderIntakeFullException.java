@@ -0,0 +1,9 @@
+package com.grocify.service;
+
+// Thrown when the intake pipeline's queue is full; the order was not accepted and its stock was released
+public class OrderIntakeFullException extends RuntimeException {
+
+    public OrderIntakeFullException() {
+        super("Too many orders are waiting to be written, try again shortly");
+    }
+}
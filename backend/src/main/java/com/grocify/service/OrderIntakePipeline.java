@@ -0,0 +1,303 @@
+package com.grocify.service;
+
+import com.grocify.entity.Order;
+import com.grocify.entity.OrderItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order intake. Validated orders get their id straight away and wait in a
+ * bounded queue; one writer thread takes whatever has queued up, up to group-size orders,
+ * and inserts them with two JDBC batches in a single transaction. Under load the queue
+ * fills while a group commits, so groups grow with the arrival rate and the cost of a
+ * commit is shared by more orders, all on one connection. Ids come from the IdAllocator,
+ * like those of orders Hibernate writes.
+ * Until committed an order is served from memory with status QUEUED. If its group fails,
+ * the orders are retried one by one and those that still fail are released back to stock
+ * and kept, with status FAILED, for the client to see. Every accepted order ends up
+ * committed or FAILED, whatever the error, and also when the node shuts down.
+ */
+@Component
+public class OrderIntakePipeline {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+
+    public static final String STATUS_FAILED = "FAILED";
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakePipeline.class);
+
+    private static final String INSERT_ORDER =
+            "INSERT INTO orders (id, user_id, total_amount, status, shipping_address, payment_method, order_date, delivery_date, notes)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_items (id, order_id, product_id, quantity, price) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductPopularity productPopularity;
+
+    @Value("${orders.intake.async:false}")
+    private boolean enabled;
+
+    @Value("${orders.intake.group-size:50}")
+    private int groupSize;
+
+    private final BlockingQueue<QueuedOrder> queue;
+
+    // Accepted orders not yet committed, by id
+    private final Map<Long, Order> queued = new ConcurrentHashMap<>();
+
+    // The most recent orders whose commit failed
+    private final Map<Long, Order> failed;
+
+    private volatile boolean stopping;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "order-intake");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OrderIntakePipeline(@Value("${orders.intake.queue-capacity:1000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.failed = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Order> eldest) {
+                return size() > queueCapacity;
+            }
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            writer.execute(this::writeQueuedOrders);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Assigns the order its id and queues it for writing. Returns false, without queueing,
+     * when the queue is full or the node is shutting down; the caller still owns the
+     * order's stock reservations then.
+     */
+    public boolean submit(Order order, List<InventoryService.Reservation> reservations) {
+        if (stopping) {
+            return false;
+        }
+        order.setId(idAllocator.next("orders"));
+        order.setStatus(STATUS_QUEUED);
+        queued.put(order.getId(), order);
+        QueuedOrder queuedOrder = new QueuedOrder(order, reservations);
+        // Taking it back out after a concurrent stop() means nothing else will write it
+        if (!queue.offer(queuedOrder) || (stopping && queue.remove(queuedOrder))) {
+            queued.remove(order.getId());
+            return false;
+        }
+        return true;
+    }
+
+    // An order accepted by this node that is still queued or has failed to commit
+    public Optional<Order> find(Long orderId) {
+        Order order = queued.get(orderId);
+        if (order == null) {
+            order = failed.get(orderId);
+        }
+        return Optional.ofNullable(order);
+    }
+
+    // Lets the writer finish its group, then commits what is still queued; no order is accepted after this
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopping = true;
+        writer.shutdown();
+        if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+            writer.shutdownNow();
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        List<QueuedOrder> group = new ArrayList<>();
+        while (queue.drainTo(group, groupSize) > 0) {
+            write(group);
+            group.clear();
+        }
+    }
+
+    private void writeQueuedOrders() {
+        List<QueuedOrder> group = new ArrayList<>(groupSize);
+        while (!stopping) {
+            try {
+                QueuedOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(group, groupSize - 1);
+            write(group);
+            group.clear();
+        }
+    }
+
+    // Commits or fails every order of the group
+    private void write(List<QueuedOrder> group) {
+        try {
+            writeGroup(group);
+        } catch (RuntimeException e) {
+            log.error("Order intake could not write {} orders", group.size(), e);
+            for (QueuedOrder queuedOrder : group) {
+                if (queued.containsKey(queuedOrder.order.getId())) {
+                    fail(queuedOrder, e);
+                }
+            }
+        }
+    }
+
+    private void writeGroup(List<QueuedOrder> group) {
+        int itemCount = 0;
+        for (QueuedOrder queuedOrder : group) {
+            itemCount += queuedOrder.order.getOrderItems().size();
+        }
+        long nextItemId;
+        try {
+            nextItemId = idAllocator.reserve("order_items", itemCount);
+        } catch (RuntimeException e) {
+            for (QueuedOrder queuedOrder : group) {
+                fail(queuedOrder, e);
+            }
+            return;
+        }
+        for (QueuedOrder queuedOrder : group) {
+            for (OrderItem item : queuedOrder.order.getOrderItems()) {
+                item.setId(nextItemId++);
+            }
+        }
+
+        try {
+            insert(group);
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                fail(group.get(0), e);
+                return;
+            }
+            // Find the orders that cannot be written instead of failing the whole group
+            for (QueuedOrder queuedOrder : group) {
+                try {
+                    insert(List.of(queuedOrder));
+                } catch (DuplicateKeyException single) {
+                    // Ids are never handed out twice, so the failed commit did go through
+                    log.warn("Order {} was written although its group reported {}", queuedOrder.order.getId(), e.toString());
+                } catch (RuntimeException single) {
+                    fail(queuedOrder, single);
+                    continue;
+                }
+                committed(List.of(queuedOrder));
+            }
+            return;
+        }
+        committed(group);
+    }
+
+    private void insert(List<QueuedOrder> group) {
+        List<OrderItem> items = new ArrayList<>();
+        for (QueuedOrder queuedOrder : group) {
+            items.addAll(queuedOrder.order.getOrderItems());
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_ORDER, group, group.size(), (statement, queuedOrder) -> {
+                Order order = queuedOrder.order;
+                statement.setLong(1, order.getId());
+                statement.setLong(2, order.getUser().getId());
+                statement.setDouble(3, order.getTotalAmount());
+                statement.setString(4, "PENDING");
+                statement.setObject(5, order.getShippingAddress(), Types.VARCHAR);
+                statement.setObject(6, order.getPaymentMethod(), Types.VARCHAR);
+                statement.setTimestamp(7, Timestamp.valueOf(order.getOrderDate()));
+                statement.setObject(8, order.getDeliveryDate() != null ? Timestamp.valueOf(order.getDeliveryDate()) : null,
+                        Types.TIMESTAMP);
+                statement.setObject(9, order.getNotes(), Types.VARCHAR);
+            });
+            jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, items, items.size(), (statement, item) -> {
+                statement.setLong(1, item.getId());
+                statement.setLong(2, item.getOrder().getId());
+                statement.setLong(3, item.getProduct().getId());
+                statement.setInt(4, item.getQuantity());
+                statement.setDouble(5, item.getPrice());
+            });
+        });
+    }
+
+    private void committed(List<QueuedOrder> group) {
+        for (QueuedOrder queuedOrder : group) {
+            queued.remove(queuedOrder.order.getId());
+        }
+        for (QueuedOrder queuedOrder : group) {
+            for (OrderItem item : queuedOrder.order.getOrderItems()) {
+                productPopularity.recordOrdered(item.getProduct().getId(), item.getQuantity());
+            }
+        }
+    }
+
+    private void fail(QueuedOrder queuedOrder, RuntimeException e) {
+        Order order = queuedOrder.order;
+        log.warn("Could not write order {}: {}", order.getId(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        for (InventoryService.Reservation reservation : queuedOrder.reservations) {
+            inventoryService.release(reservation);
+        }
+        order.setStatus(STATUS_FAILED);
+        failed.put(order.getId(), order);
+        queued.remove(order.getId());
+    }
+
+    private static final class QueuedOrder {
+
+        private final Order order;
+
+        private final List<InventoryService.Reservation> reservations;
+
+        private QueuedOrder(Order order, List<InventoryService.Reservation> reservations) {
+            this.order = order;
+            this.reservations = reservations;
+        }
+    }
+}
@@ -5,12 +5,21 @@ import com.grocify.entity.OrderItem;
 import com.grocify.entity.Product;
 import com.grocify.entity.User;
 import com.grocify.repository.OrderRepository;
-import com.grocify.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -20,26 +29,112 @@ public class OrderService {
     private OrderRepository orderRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private EntityManagerFactory entityManagerFactory;
 
+    @Autowired
+    private ProductPopularity productPopularity;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderIntakePipeline orderIntake;
+
+    // Not one transaction: the products are read, stock reserved and the order written in steps of their own, since
+    // a reservation inside an open transaction would need a second pooled connection. Reservations are handed back
+    // when the cart is refused or the order cannot be written.
     public Order createOrder(User user, List<CartItemRequest> cartItems, String shippingAddress, String paymentMethod, String notes) {
-        List<OrderItem> orderItems = new ArrayList<>();
-        double totalAmount = 0.0;
+        List<InventoryService.Reservation> reserved = new ArrayList<>();
+        Order order = prepareOrder(user, cartItems, shippingAddress, paymentMethod, notes, reserved);
+
+        Order savedOrder;
+        try {
+            savedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            releaseStock(reserved);
+            throw e;
+        }
+        for (OrderItem item : order.getOrderItems()) {
+            productPopularity.recordOrdered(item.getProduct().getId(), item.getQuantity());
+        }
+        return savedOrder;
+    }
+
+    public boolean isAsyncIntake() {
+        return orderIntake.isEnabled();
+    }
+
+    // Validates the cart and reserves its stock like createOrder, but leaves writing the order to the intake pipeline
+    public Order submitOrder(User user, List<CartItemRequest> cartItems, String shippingAddress, String paymentMethod, String notes) {
+        List<InventoryService.Reservation> reserved = new ArrayList<>();
+        Order order = prepareOrder(user, cartItems, shippingAddress, paymentMethod, notes, reserved);
+        if (!orderIntake.submit(order, reserved)) {
+            releaseStock(reserved);
+            throw new OrderIntakeFullException();
+        }
+        return order;
+    }
+
+    // Duplicate lines are merged; all products are loaded at once and every line is
+    // checked before the order is written, so a bad cart fails with the full list of problems.
+    // Stock is reserved outside any transaction, so no request holds two pooled connections.
+    private Order prepareOrder(User user, List<CartItemRequest> cartItems, String shippingAddress, String paymentMethod, String notes,
+                               List<InventoryService.Reservation> reserved) {
+        if (cartItems == null || cartItems.isEmpty()) {
+            throw new IllegalArgumentException("Cart is empty");
+        }
+        List<CartValidationException.LineError> errors = new ArrayList<>();
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Integer> firstLines = new HashMap<>();
+        for (int line = 0; line < cartItems.size(); line++) {
+            CartItemRequest cartItem = cartItems.get(line);
+            if (cartItem == null || cartItem.getProductId() == null) {
+                errors.add(new CartValidationException.LineError(line, null, "Product id is required"));
+            } else if (cartItem.getQuantity() == null || cartItem.getQuantity() <= 0) {
+                errors.add(new CartValidationException.LineError(line, cartItem.getProductId(), "Quantity must be positive"));
+            } else {
+                quantities.merge(cartItem.getProductId(), cartItem.getQuantity(), Integer::sum);
+                firstLines.putIfAbsent(cartItem.getProductId(), line);
+            }
+        }
+
+        Map<Long, Product> products = loadProducts(quantities.keySet());
 
-        for (CartItemRequest cartItem : cartItems) {
-            Optional<Product> productOpt = productRepository.findById(cartItem.getProductId());
-            if (productOpt.isPresent()) {
-                Product product = productOpt.get();
-                double itemTotal = product.getPrice() * cartItem.getQuantity();
-                totalAmount += itemTotal;
+        List<OrderItem> orderItems = new ArrayList<>(quantities.size());
+        double totalAmount = 0.0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Product product = products.get(entry.getKey());
+            int line = firstLines.get(entry.getKey());
+            if (product == null) {
+                errors.add(new CartValidationException.LineError(line, entry.getKey(), "Product not found"));
+            } else if (!product.isAvailable()) {
+                errors.add(new CartValidationException.LineError(line, entry.getKey(), product.getName() + " is out of stock"));
+            } else {
+                totalAmount += product.getPrice() * entry.getValue();
 
                 OrderItem orderItem = new OrderItem();
                 orderItem.setProduct(product);
-                orderItem.setQuantity(cartItem.getQuantity());
+                orderItem.setQuantity(entry.getValue());
                 orderItem.setPrice(product.getPrice());
                 orderItems.add(orderItem);
             }
         }
+        if (errors.isEmpty()) {
+            Map<Long, InventoryService.Reservation> reservations = inventoryService.reserveAll(quantities);
+            reserved.addAll(reservations.values());
+            for (OrderItem item : orderItems) {
+                Product product = item.getProduct();
+                if (!reservations.containsKey(product.getId())) {
+                    errors.add(new CartValidationException.LineError(firstLines.get(product.getId()), product.getId(),
+                            "Not enough " + product.getName() + " in stock"));
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            releaseStock(reserved);
+            errors.sort(Comparator.comparingInt(CartValidationException.LineError::getLine));
+            throw new CartValidationException(errors);
+        }
 
         Order order = new Order();
         order.setUser(user);
@@ -54,18 +149,54 @@ public class OrderService {
             item.setOrder(order);
         }
         order.setOrderItems(orderItems);
+        return order;
+    }
+
+    // Products in the second-level cache come from there; the rest are loaded with one query
+    private Map<Long, Product> loadProducts(Collection<Long> productIds) {
+        Map<Long, Product> products = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return products;
+        }
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (Product product : entityManager.unwrap(Session.class).byMultipleIds(Product.class)
+                    // multiLoad only looks in the cache when a cache mode is given
+                    .with(CacheMode.NORMAL)
+                    .withBatchSize(productIds.size())
+                    .multiLoad(new ArrayList<>(productIds))) {
+                // Null for ids with no product
+                if (product != null) {
+                    products.put(product.getId(), product);
+                }
+            }
+        } finally {
+            entityManager.close();
+        }
+        return products;
+    }
 
-        return orderRepository.save(order);
+    private void releaseStock(List<InventoryService.Reservation> reservations) {
+        for (InventoryService.Reservation reservation : reservations) {
+            inventoryService.release(reservation);
+        }
     }
 
     public List<Order> getUserOrders(User user) {
         return orderRepository.findByUserOrderByOrderDateDesc(user);
     }
 
+    // Orders still in, or rejected by, the intake pipeline are only known to the node that accepted them
     public Optional<Order> getOrderById(Long orderId) {
+        Optional<Order> intake = orderIntake.find(orderId);
+        if (intake.isPresent()) {
+            return intake;
+        }
         return orderRepository.findById(orderId);
     }
 
+    // In one transaction, so the order returned is the one loaded with its items rather than a merged copy without them
+    @Transactional
     public Order updateOrderStatus(Long orderId, String status) {
         Optional<Order> orderOpt = orderRepository.findById(orderId);
         if (orderOpt.isPresent()) {
@@ -0,0 +1,79 @@
+package com.grocify.service;
+
+import com.grocify.dto.CategoryNode;
+import com.grocify.entity.Product;
+import com.grocify.util.CategoryPath;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts of available products per category path, each including the whole subtree, as
+ * the storefront shows them; a category whose products are all unavailable is left out.
+ * A write adjusts the counts of the old and new category and their ancestors only. The
+ * category facet reads the same counts.
+ */
+@Component
+public class ProductCategoryTree implements CatalogListener {
+
+    private final TreeMap<String, Integer> subtreeCounts = new TreeMap<>();
+
+    @Override
+    public synchronized void onCatalogLoaded(CatalogSnapshot snapshot) {
+        subtreeCounts.clear();
+        for (Product product : snapshot.getAvailableProducts()) {
+            count(product, 1);
+        }
+    }
+
+    @Override
+    public synchronized void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        if (previous != null) {
+            count(previous, -1);
+        }
+        count(saved, 1);
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        count(removed, -1);
+    }
+
+    // Subtree counts by path, in path order
+    public synchronized Map<String, Integer> getCounts() {
+        return new LinkedHashMap<>(subtreeCounts);
+    }
+
+    public synchronized List<CategoryNode> getTree() {
+        List<CategoryNode> roots = new ArrayList<>();
+        Map<String, CategoryNode> nodes = new HashMap<>();
+        // A path sorts before its descendants, so every parent is built before its children
+        for (Map.Entry<String, Integer> entry : subtreeCounts.entrySet()) {
+            String path = entry.getKey();
+            CategoryNode node = new CategoryNode(CategoryPath.name(path), path, entry.getValue());
+            nodes.put(path, node);
+            String parent = CategoryPath.parent(path);
+            if (parent == null) {
+                roots.add(node);
+            } else {
+                nodes.get(parent).getChildren().add(node);
+            }
+        }
+        return roots;
+    }
+
+    private void count(Product product, int delta) {
+        if (!product.isAvailable() || product.getCategory() == null) {
+            return;
+        }
+        for (String path : CategoryPath.lineage(product.getCategory())) {
+            subtreeCounts.merge(path, delta, Integer::sum);
+            subtreeCounts.remove(path, 0);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.grocify.service;
+
+import com.grocify.dto.ProductChange;
+import com.grocify.entity.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes product writes to server-sent-event subscribers, keeping the most recent changes
+ * so a client can resume from the last event id it saw. Event ids are the shared catalog
+ * version, like the catalog ETag, so they stay valid across nodes and restarts. A catalog
+ * reload, for example after a write on another node, is turned into the changes between
+ * the two snapshots; all but the last of them carry no id, so a client interrupted in the
+ * middle resumes from before them. A client that cannot be caught up from the buffer gets
+ * a reset event and should refetch the catalog.
+ *
+ * Every subscriber has its own bounded queue, drained by a small pool of sender threads, so
+ * writers never wait on clients and a slow client only delays itself. A client whose queue
+ * fills up is disconnected; it reconnects with its last event id like after any other drop.
+ */
+@Component
+public class ProductChangeFeed implements CatalogListener {
+
+    public static final String EVENT_CHANGE = "change";
+
+    public static final String EVENT_RESET = "reset";
+
+    private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private static final Event HEARTBEAT = new Event(null, null, null);
+
+    @Value("${catalog.changes.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${catalog.changes.client-buffer-size:256}")
+    private int clientBufferSize;
+
+    @Value("${catalog.changes.sender-threads:4}")
+    private int senderThreads;
+
+    // Each subscriber has at most one drain task queued or running
+    private ExecutorService senders;
+
+    // The fields below are guarded by this
+    private final ArrayDeque<ProductChange> recentChanges = new ArrayDeque<>();
+
+    private final List<Subscriber> subscribers = new ArrayList<>();
+
+    // The snapshot the current version belongs to, to diff reloads against
+    private CatalogSnapshot catalog;
+
+    // -1 until the catalog is loaded
+    private long version = -1;
+
+    // recentChanges holds every change made after this version
+    private long historyStart = -1;
+
+    @PostConstruct
+    void startSenders() {
+        senders = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "product-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopSenders() {
+        senders.shutdownNow();
+    }
+
+    @Override
+    public synchronized void onCatalogLoaded(CatalogSnapshot snapshot) {
+        CatalogSnapshot previous = catalog;
+        catalog = snapshot;
+        if (previous != null && snapshot.getVersion() == version) {
+            return;
+        }
+        List<ProductChange> changes = previous == null || snapshot.getVersion() < version
+                ? null : changesBetween(previous, snapshot);
+        if (changes == null || changes.size() > bufferSize) {
+            recentChanges.clear();
+            version = snapshot.getVersion();
+            historyStart = version;
+            Event reset = resetEvent();
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(reset);
+            }
+            return;
+        }
+        List<Event> events = changeEvents(changes);
+        for (ProductChange change : changes) {
+            remember(change);
+        }
+        version = snapshot.getVersion();
+        for (Subscriber subscriber : subscribers) {
+            for (Event event : events) {
+                if (!subscriber.offer(event)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        catalog = snapshot;
+        publish(new ProductChange(snapshot.getVersion(), previous == null ? ProductChange.CREATED : ProductChange.UPDATED,
+                saved.getId(), saved));
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        catalog = snapshot;
+        publish(new ProductChange(snapshot.getVersion(), ProductChange.DELETED, removed.getId(), null));
+    }
+
+    /**
+     * @param lastEventId the id of the last event the client applied, or {@code null} to
+     *                    start with a reset event at the current version
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        synchronized (this) {
+            List<ProductChange> backlog = backlogSince(lastEventId);
+            subscriber.start(backlog == null ? List.of(resetEvent()) : changeEvents(backlog));
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    // Comment lines keep idle connections open through proxies and reveal disconnected clients
+    @Scheduled(fixedRate = 30_000)
+    public synchronized void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offerHeartbeat();
+        }
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        subscriber.close();
+        subscribers.remove(subscriber);
+    }
+
+    private void publish(ProductChange change) {
+        remember(change);
+        version = change.getVersion();
+        Event event = changeEvent(change, true);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private void remember(ProductChange change) {
+        recentChanges.addLast(change);
+        while (recentChanges.size() > bufferSize) {
+            historyStart = recentChanges.removeFirst().getVersion();
+        }
+    }
+
+    // Changes after the given event id, or null when the client has to start over
+    private List<ProductChange> backlogSince(String lastEventId) {
+        if (lastEventId == null || version < 0) {
+            return null;
+        }
+        long since;
+        try {
+            since = Long.parseLong(lastEventId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (since > version || since < historyStart) {
+            return null;
+        }
+        List<ProductChange> backlog = new ArrayList<>();
+        for (ProductChange change : recentChanges) {
+            if (change.getVersion() > since) {
+                backlog.add(change);
+            }
+        }
+        return backlog;
+    }
+
+    // Both product lists are sorted by id
+    private static List<ProductChange> changesBetween(CatalogSnapshot previous, CatalogSnapshot next) {
+        List<ProductChange> changes = new ArrayList<>();
+        List<Product> before = previous.getProducts();
+        List<Product> after = next.getProducts();
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size()) {
+            Product old = i < before.size() ? before.get(i) : null;
+            Product current = j < after.size() ? after.get(j) : null;
+            int order = old == null ? 1 : current == null ? -1 : old.getId().compareTo(current.getId());
+            if (order < 0) {
+                changes.add(new ProductChange(next.getVersion(), ProductChange.DELETED, old.getId(), null));
+                i++;
+            } else if (order > 0) {
+                changes.add(new ProductChange(next.getVersion(), ProductChange.CREATED, current.getId(), current));
+                j++;
+            } else {
+                if (!sameContent(old, current)) {
+                    changes.add(new ProductChange(next.getVersion(), ProductChange.UPDATED, current.getId(), current));
+                }
+                i++;
+                j++;
+            }
+        }
+        return changes;
+    }
+
+    private static boolean sameContent(Product a, Product b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getPrice(), b.getPrice())
+                && Objects.equals(a.getImageUrl(), b.getImageUrl())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && a.isAvailable() == b.isAvailable()
+                && Objects.equals(a.getUnitType(), b.getUnitType())
+                && Objects.equals(a.getUnitPrice(), b.getUnitPrice());
+    }
+
+    // Only the last change of each version carries its id
+    private static List<Event> changeEvents(List<ProductChange> changes) {
+        List<Event> events = new ArrayList<>(changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            boolean last = i + 1 == changes.size() || changes.get(i + 1).getVersion() != changes.get(i).getVersion();
+            events.add(changeEvent(changes.get(i), last));
+        }
+        return events;
+    }
+
+    private static Event changeEvent(ProductChange change, boolean withId) {
+        return new Event(withId ? Long.toString(change.getVersion()) : null, EVENT_CHANGE, change);
+    }
+
+    private Event resetEvent() {
+        return new Event(Long.toString(version), EVENT_RESET, Map.of("version", version));
+    }
+
+    // Builders change when built, so every send builds a fresh one
+    private static final class Event {
+        private final String id;
+        // Null for a heartbeat comment
+        private final String name;
+        private final Object data;
+
+        private Event(String id, String name, Object data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        private SseEmitter.SseEventBuilder build() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+            return id != null ? event.id(id) : event;
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+
+        // The fields below are guarded by this
+        private final ArrayDeque<Event> pending = new ArrayDeque<>();
+
+        private boolean scheduled;
+
+        private boolean closed;
+
+        // Set when the queue overflowed; the sender completes the emitter once it is not sending
+        private boolean dropped;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // The first events may exceed the client buffer; a resumed backlog can be up to the whole history
+        private synchronized void start(List<Event> events) {
+            pending.addAll(events);
+            schedule();
+        }
+
+        // Returns false once the client is gone or has been dropped
+        private synchronized boolean offer(Event event) {
+            if (closed || dropped) {
+                return false;
+            }
+            if (pending.size() >= clientBufferSize) {
+                pending.clear();
+                dropped = true;
+                schedule();
+                return false;
+            }
+            pending.addLast(event);
+            schedule();
+            return true;
+        }
+
+        // Only for an idle connection; any queued event already shows the client is alive
+        private synchronized void offerHeartbeat() {
+            if (pending.isEmpty()) {
+                offer(HEARTBEAT);
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            pending.clear();
+        }
+
+        private void schedule() {
+            if (!scheduled && !closed) {
+                scheduled = true;
+                senders.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    if (closed) {
+                        scheduled = false;
+                        return;
+                    }
+                    if (dropped) {
+                        closed = true;
+                        scheduled = false;
+                        event = null;
+                    } else {
+                        event = pending.pollFirst();
+                        if (event == null) {
+                            scheduled = false;
+                            return;
+                        }
+                    }
+                }
+                if (event == null) {
+                    emitter.complete();
+                    unsubscribe(this);
+                    return;
+                }
+                try {
+                    emitter.send(event.build());
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                    unsubscribe(this);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.grocify.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocify.entity.Product;
+import com.grocify.repository.ProductRepository;
+import com.grocify.util.CsvLine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the product table as NDJSON or CSV straight from a database cursor. Each row is
+ * detached once written, so memory use does not grow with the catalog. The CSV columns
+ * are the ones the bulk import reads, so an export can be imported back.
+ */
+@Service
+public class ProductExportService {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    public static final String FORMAT_CSV = "csv";
+
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public ProductExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(String format, OutputStream output) {
+        if (!FORMAT_NDJSON.equals(format) && !FORMAT_CSV.equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        OutputStream out = new BufferedOutputStream(output, 64 * 1024);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Product> products = productRepository.streamAll()) {
+                if (FORMAT_CSV.equals(format)) {
+                    writeLine(out, CsvLine.format("id", "name", "price", "image_url", "description", "category", "available"));
+                }
+                Iterator<Product> rows = products.iterator();
+                while (rows.hasNext()) {
+                    Product product = rows.next();
+                    if (FORMAT_CSV.equals(format)) {
+                        writeLine(out, CsvLine.format(product.getId(), product.getName(), product.getPrice(),
+                                product.getImageUrl(), product.getDescription(), product.getCategory(), product.isAvailable()));
+                    } else {
+                        out.write(objectMapper.writeValueAsBytes(product));
+                        out.write(NEWLINE);
+                    }
+                    entityManager.detach(product);
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write(NEWLINE);
+    }
+}
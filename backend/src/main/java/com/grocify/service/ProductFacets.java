@@ -0,0 +1,79 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Category and price-bucket counts of available products, adjusted by the delta of
+ * each catalog write rather than recomputed with a GROUP BY. The category counts are
+ * ProductCategoryTree's, so a category counts its whole subtree and matches the tree.
+ */
+@Component
+public class ProductFacets implements CatalogListener {
+
+    // Lower bounds of the price buckets; the last bucket is open-ended
+    public static final double[] PRICE_BUCKET_BOUNDS = {0, 50, 100, 200, 500};
+
+    @Autowired
+    private ProductCategoryTree categoryTree;
+
+    private final int[] priceBucketCounts = new int[PRICE_BUCKET_BOUNDS.length];
+
+    @Override
+    public synchronized void onCatalogLoaded(CatalogSnapshot snapshot) {
+        Arrays.fill(priceBucketCounts, 0);
+        for (Product product : snapshot.getAvailableProducts()) {
+            count(product, 1);
+        }
+    }
+
+    @Override
+    public synchronized void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        if (previous != null) {
+            count(previous, -1);
+        }
+        count(saved, 1);
+    }
+
+    @Override
+    public synchronized void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        count(removed, -1);
+    }
+
+    public synchronized Map<String, Object> getFacets() {
+        List<Map<String, Object>> priceBuckets = new ArrayList<>(PRICE_BUCKET_BOUNDS.length);
+        for (int i = 0; i < PRICE_BUCKET_BOUNDS.length; i++) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("min", PRICE_BUCKET_BOUNDS[i]);
+            bucket.put("max", i + 1 < PRICE_BUCKET_BOUNDS.length ? PRICE_BUCKET_BOUNDS[i + 1] : null);
+            bucket.put("count", priceBucketCounts[i]);
+            priceBuckets.add(bucket);
+        }
+
+        Map<String, Object> facets = new LinkedHashMap<>();
+        facets.put("categories", categoryTree.getCounts());
+        facets.put("priceBuckets", priceBuckets);
+        return facets;
+    }
+
+    public static int priceBucket(double price) {
+        int bucket = 0;
+        while (bucket + 1 < PRICE_BUCKET_BOUNDS.length && price >= PRICE_BUCKET_BOUNDS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void count(Product product, int delta) {
+        if (product.isAvailable() && product.getPrice() != null) {
+            priceBucketCounts[priceBucket(product.getPrice())] += delta;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.grocify.service;
+
+import com.grocify.dto.ProductFilter;
+import com.grocify.entity.Product;
+import com.grocify.util.CategoryPath;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of product ids per filter dimension: category, availability and
+ * the facet price buckets. A combined filter is answered by intersecting bitmaps; only
+ * products in the two price buckets that straddle a price bound are checked one by one.
+ */
+@Component
+public class ProductFilterIndex implements CatalogListener {
+
+    private final RoaringBitmap allProducts = new RoaringBitmap();
+
+    private final RoaringBitmap availableProducts = new RoaringBitmap();
+
+    // Keyed by the exact category path; a filter on a path also takes the range of its descendants
+    private final TreeMap<String, RoaringBitmap> productsByCategory = new TreeMap<>();
+
+    private final RoaringBitmap[] productsByPriceBucket = new RoaringBitmap[ProductFacets.PRICE_BUCKET_BOUNDS.length];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductFilterIndex() {
+        for (int i = 0; i < productsByPriceBucket.length; i++) {
+            productsByPriceBucket[i] = new RoaringBitmap();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded(CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            allProducts.clear();
+            availableProducts.clear();
+            productsByCategory.clear();
+            for (RoaringBitmap bucket : productsByPriceBucket) {
+                bucket.clear();
+            }
+            for (Product product : snapshot.getProducts()) {
+                add(product);
+            }
+            allProducts.runOptimize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(previous);
+            }
+            add(saved);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            remove(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of the products matching every dimension of the filter; the result is owned by the caller
+    public RoaringBitmap match(ProductFilter filter, CatalogSnapshot snapshot) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result;
+            if (filter.getAvailable() == null) {
+                result = allProducts.clone();
+            } else if (filter.getAvailable()) {
+                result = availableProducts.clone();
+            } else {
+                result = RoaringBitmap.andNot(allProducts, availableProducts);
+            }
+
+            if (filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+                RoaringBitmap categories = new RoaringBitmap();
+                for (String category : filter.getCategories()) {
+                    String path = CategoryPath.normalize(category);
+                    if (path == null) {
+                        continue;
+                    }
+                    RoaringBitmap products = productsByCategory.get(path);
+                    if (products != null) {
+                        categories.or(products);
+                    }
+                    for (RoaringBitmap descendants : productsByCategory.subMap(
+                            CategoryPath.descendantsFrom(path), CategoryPath.descendantsTo(path)).values()) {
+                        categories.or(descendants);
+                    }
+                }
+                result.and(categories);
+            }
+
+            if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+                result = matchPrice(result, filter, snapshot);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap matchPrice(RoaringBitmap candidates, ProductFilter filter, CatalogSnapshot snapshot) {
+        double min = filter.getMinPrice() != null ? filter.getMinPrice() : Double.NEGATIVE_INFINITY;
+        double max = filter.getMaxPrice() != null ? filter.getMaxPrice() : Double.POSITIVE_INFINITY;
+        double[] bounds = ProductFacets.PRICE_BUCKET_BOUNDS;
+
+        RoaringBitmap inside = new RoaringBitmap();
+        RoaringBitmap straddling = new RoaringBitmap();
+        for (int i = 0; i < bounds.length; i++) {
+            double lower = i == 0 ? Double.NEGATIVE_INFINITY : bounds[i];
+            double upper = i + 1 < bounds.length ? bounds[i + 1] : Double.POSITIVE_INFINITY;
+            if (upper <= min || lower > max) {
+                continue;
+            }
+            if (lower >= min && upper <= max) {
+                inside.or(productsByPriceBucket[i]);
+            } else {
+                straddling.or(productsByPriceBucket[i]);
+            }
+        }
+
+        RoaringBitmap result = RoaringBitmap.and(candidates, inside);
+        IntIterator edge = RoaringBitmap.and(candidates, straddling).getIntIterator();
+        while (edge.hasNext()) {
+            int productId = edge.next();
+            Optional<Product> product = snapshot.getProduct((long) productId);
+            if (product.isPresent() && product.get().getPrice() >= min && product.get().getPrice() <= max) {
+                result.add(productId);
+            }
+        }
+        return result;
+    }
+
+    private void add(Product product) {
+        int productId = bitmapId(product.getId());
+        allProducts.add(productId);
+        if (product.isAvailable()) {
+            availableProducts.add(productId);
+        }
+        if (product.getCategory() != null) {
+            productsByCategory.computeIfAbsent(product.getCategory(), category -> new RoaringBitmap()).add(productId);
+        }
+        if (product.getPrice() != null) {
+            productsByPriceBucket[ProductFacets.priceBucket(product.getPrice())].add(productId);
+        }
+    }
+
+    private void remove(Product product) {
+        int productId = bitmapId(product.getId());
+        allProducts.remove(productId);
+        availableProducts.remove(productId);
+        if (product.getCategory() != null) {
+            RoaringBitmap products = productsByCategory.get(product.getCategory());
+            if (products != null) {
+                products.remove(productId);
+                if (products.isEmpty()) {
+                    productsByCategory.remove(product.getCategory());
+                }
+            }
+        }
+        if (product.getPrice() != null) {
+            productsByPriceBucket[ProductFacets.priceBucket(product.getPrice())].remove(productId);
+        }
+    }
+
+    static int bitmapId(Long productId) {
+        if (productId < 0 || productId > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Product id out of bitmap range: " + productId);
+        }
+        return productId.intValue();
+    }
+}
@@ -0,0 +1,345 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import com.grocify.util.TextTokens;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BK-tree over the distinct words of product names, used to answer misspelled queries
+ * ("tomatos", "brocoli") that have no exact hits. A BK-tree cannot drop a node without
+ * rebuilding the subtree under it, so words that no product uses any more stay in the
+ * tree as dead words until they make up a quarter of it, and the tree is then rebuilt
+ * from the live words.
+ */
+@Component
+public class ProductFuzzyIndex implements CatalogListener {
+
+    private static final int MIN_WORD_LENGTH = 3;
+
+    // Below this a few dead words cost less than rebuilding after every rename
+    private static final int MIN_DEAD_WORDS_TO_REBUILD = 1000;
+
+    @Autowired
+    private ProductPopularity popularity;
+
+    // Most popular first, then lowest id
+    private static final Comparator<Candidate> RANKING = Comparator.comparingLong((Candidate candidate) -> -candidate.score)
+            .thenComparingLong(candidate -> candidate.productId);
+
+    private final Map<String, RoaringBitmap> productsByWord = new HashMap<>();
+
+    private Node root;
+
+    private int treeSize;
+
+    // Words in the tree that are no longer in productsByWord
+    private int deadWords;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void onCatalogLoaded(CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            productsByWord.clear();
+            root = null;
+            treeSize = 0;
+            deadWords = 0;
+            for (Product product : snapshot.getProducts()) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(previous);
+            }
+            add(saved);
+            rebuildIfManyDeadWords();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            remove(removed);
+            rebuildIfManyDeadWords();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Products whose name contains, for every query word, a word within the allowed edit
+     * distance (1 for words up to four letters, 2 beyond). Ranked by total distance,
+     * then popularity.
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> queryWords = new LinkedHashSet<>();
+        for (String word : TextTokens.tokenize(query)) {
+            if (isIndexable(word)) {
+                queryWords.add(word);
+            }
+        }
+        if (queryWords.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Products by their total distance over the query words so far, nearest first
+            TreeMap<Integer, RoaringBitmap> byTotal = null;
+            for (String queryWord : queryWords) {
+                RoaringBitmap[] byDistance = productsByDistance(queryWord, queryWord.length() <= 4 ? 1 : 2);
+                TreeMap<Integer, RoaringBitmap> combined = new TreeMap<>();
+                for (int distance = 0; distance < byDistance.length; distance++) {
+                    if (byTotal == null) {
+                        addLevel(combined, distance, byDistance[distance]);
+                    } else {
+                        for (Map.Entry<Integer, RoaringBitmap> level : byTotal.entrySet()) {
+                            addLevel(combined, level.getKey() + distance,
+                                    RoaringBitmap.and(level.getValue(), byDistance[distance]));
+                        }
+                    }
+                }
+                if (combined.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                byTotal = combined;
+            }
+            return rank(byTotal, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index d holds the products whose nearest word to the query word is at distance d
+    private RoaringBitmap[] productsByDistance(String queryWord, int maxDistance) {
+        RoaringBitmap[] byDistance = new RoaringBitmap[maxDistance + 1];
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            byDistance[distance] = new RoaringBitmap();
+        }
+        for (Map.Entry<String, Integer> match : nearWords(queryWord, maxDistance).entrySet()) {
+            RoaringBitmap productIds = productsByWord.get(match.getKey());
+            if (productIds != null) {
+                byDistance[match.getValue()].or(productIds);
+            }
+        }
+        RoaringBitmap nearer = new RoaringBitmap();
+        for (RoaringBitmap productIds : byDistance) {
+            productIds.andNot(nearer);
+            nearer.or(productIds);
+        }
+        return byDistance;
+    }
+
+    // The levels of one combination are disjoint, since each product has a single nearest distance
+    private static void addLevel(TreeMap<Integer, RoaringBitmap> levels, int total, RoaringBitmap productIds) {
+        if (!productIds.isEmpty()) {
+            levels.merge(total, productIds, (merged, more) -> {
+                merged.or(more);
+                return merged;
+            });
+        }
+    }
+
+    // Whole levels in order until the limit; the level that reaches it only has its most popular kept
+    private List<Long> rank(TreeMap<Integer, RoaringBitmap> byTotal, int limit) {
+        List<Long> ranked = new ArrayList<>(limit);
+        for (RoaringBitmap level : byTotal.values()) {
+            int remaining = limit - ranked.size();
+            if (remaining <= 0) {
+                break;
+            }
+            PriorityQueue<Candidate> top = new PriorityQueue<>(remaining + 1, RANKING.reversed());
+            for (int productId : level) {
+                Candidate candidate = new Candidate(productId, popularity.getScore(productId));
+                if (top.size() < remaining || RANKING.compare(candidate, top.peek()) < 0) {
+                    top.offer(candidate);
+                    if (top.size() > remaining) {
+                        top.poll();
+                    }
+                }
+            }
+            List<Candidate> sorted = new ArrayList<>(top);
+            sorted.sort(RANKING);
+            for (Candidate candidate : sorted) {
+                ranked.add(candidate.productId);
+            }
+        }
+        return ranked;
+    }
+
+    private Map<String, Integer> nearWords(String word, int maxDistance) {
+        Map<String, Integer> matches = new HashMap<>();
+        if (root == null) {
+            return matches;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = levenshtein(word, node.word);
+            if (distance <= maxDistance) {
+                matches.put(node.word, distance);
+            }
+            // Triangle inequality: only children at distance d from the node can lie within maxDistance of word
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                    pending.push(child.getValue());
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void add(Product product) {
+        int productId = ProductFilterIndex.bitmapId(product.getId());
+        for (String word : nameWords(product)) {
+            RoaringBitmap productIds = productsByWord.get(word);
+            if (productIds == null) {
+                productIds = new RoaringBitmap();
+                productsByWord.put(word, productIds);
+                if (!insert(word)) {
+                    // A dead word back in use
+                    deadWords--;
+                }
+            }
+            productIds.add(productId);
+        }
+    }
+
+    private void remove(Product product) {
+        int productId = ProductFilterIndex.bitmapId(product.getId());
+        for (String word : nameWords(product)) {
+            RoaringBitmap productIds = productsByWord.get(word);
+            if (productIds != null && productIds.checkedRemove(productId) && productIds.isEmpty()) {
+                productsByWord.remove(word);
+                deadWords++;
+            }
+        }
+    }
+
+    private void rebuildIfManyDeadWords() {
+        if (deadWords < MIN_DEAD_WORDS_TO_REBUILD || deadWords * 4 < treeSize) {
+            return;
+        }
+        root = null;
+        treeSize = 0;
+        deadWords = 0;
+        for (String word : productsByWord.keySet()) {
+            insert(word);
+        }
+    }
+
+    // Returns false when the word was already in the tree
+    private boolean insert(String word) {
+        if (root == null) {
+            root = new Node(word);
+            treeSize++;
+            return true;
+        }
+        Node node = root;
+        while (true) {
+            int distance = levenshtein(word, node.word);
+            if (distance == 0) {
+                return false;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(word));
+                treeSize++;
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    private static Set<String> nameWords(Product product) {
+        Set<String> words = new HashSet<>();
+        for (String word : TextTokens.tokenize(product.getName())) {
+            if (isIndexable(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Pack sizes such as "500g" or "12" are not worth correcting
+    private static boolean isIndexable(String word) {
+        if (word.length() < MIN_WORD_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Exact distance is needed even for far words, since the tree is navigated by it
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class Candidate {
+        private final long productId;
+        private final long score;
+
+        private Candidate(long productId, long score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+
+    private static final class Node {
+        private final String word;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+
+        private Node(String word) {
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.grocify.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocify.dto.ImportReport;
+import com.grocify.entity.Product;
+import com.grocify.util.CsvLine;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streams a supplier catalog from CSV or NDJSON, validating each row as it is read and
+ * inserting valid rows with plain JDBC batches, one transaction per batch. Ids are
+ * reserved a batch at a time from the same generator table Hibernate uses. The caller
+ * can follow the import through a callback that sees the report after every batch.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (id, name, price, image_url, description, category, available, unit_type, unit_price)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Value("${catalog.import.batch-size:500}")
+    private int batchSize;
+
+    public ImportReport importCsv(InputStream input) throws IOException {
+        return importCsv(input, report -> {});
+    }
+
+    public ImportReport importCsv(InputStream input, Consumer<ImportReport> onBatch) throws IOException {
+        Map<String, Integer> columns = new HashMap<>();
+        return importRows(input, onBatch, line -> {
+            List<String> fields = CsvLine.parse(line);
+            if (columns.isEmpty()) {
+                for (int i = 0; i < fields.size(); i++) {
+                    columns.put(fields.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+                }
+                if (!columns.containsKey("name") || !columns.containsKey("price")) {
+                    throw new IllegalStateException("Header row must name at least the name and price columns");
+                }
+                return null;
+            }
+            Product product = new Product();
+            product.setName(column(fields, columns, "name"));
+            product.setPrice(parsePrice(column(fields, columns, "price")));
+            product.setImageUrl(column(fields, columns, "imageurl"));
+            product.setDescription(column(fields, columns, "description"));
+            product.setCategory(column(fields, columns, "category"));
+            product.setAvailable(parseAvailable(column(fields, columns, "available")));
+            return product;
+        });
+    }
+
+    public ImportReport importNdjson(InputStream input) throws IOException {
+        return importNdjson(input, report -> {});
+    }
+
+    public ImportReport importNdjson(InputStream input, Consumer<ImportReport> onBatch) throws IOException {
+        return importRows(input, onBatch, line -> {
+            try {
+                Product product = objectMapper.readValue(line, Product.class);
+                product.setId(null);
+                return product;
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    private ImportReport importRows(InputStream input, Consumer<ImportReport> onBatch, RowParser parser) throws IOException {
+        ImportReport report = new ImportReport();
+        List<Product> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Product product;
+                try {
+                    product = parser.parse(line);
+                } catch (IllegalArgumentException e) {
+                    report.setRowsRead(report.getRowsRead() + 1);
+                    report.reject(lineNumber, e.getMessage());
+                    continue;
+                }
+                if (product == null) {
+                    continue;
+                }
+                report.setRowsRead(report.getRowsRead() + 1);
+
+                Set<ConstraintViolation<Product>> violations = validator.validate(product);
+                if (!violations.isEmpty()) {
+                    ConstraintViolation<Product> violation = violations.iterator().next();
+                    report.reject(lineNumber, violation.getPropertyPath() + " " + violation.getMessage());
+                    continue;
+                }
+
+                batch.add(product);
+                batchLines.add(lineNumber);
+                if (batch.size() >= batchSize) {
+                    flush(batch, batchLines, report, onBatch);
+                }
+            }
+        }
+        flush(batch, batchLines, report, onBatch);
+
+        if (report.getImported() > 0) {
+            productService.reloadCatalog();
+        }
+        return report;
+    }
+
+    private void flush(List<Product> batch, List<Long> batchLines, ImportReport report, Consumer<ImportReport> onBatch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            long nextId = idAllocator.reserve("products", batch.size());
+            for (Product product : batch) {
+                product.setId(nextId++);
+                product.updateUnitPrice();
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_PRODUCT, batch, batch.size(), (statement, product) -> {
+                        statement.setLong(1, product.getId());
+                        statement.setString(2, product.getName());
+                        statement.setDouble(3, product.getPrice());
+                        statement.setObject(4, product.getImageUrl(), Types.VARCHAR);
+                        statement.setObject(5, product.getDescription(), Types.VARCHAR);
+                        statement.setObject(6, product.getCategory(), Types.VARCHAR);
+                        statement.setBoolean(7, product.isAvailable());
+                        statement.setObject(8, product.getUnitType(), Types.VARCHAR);
+                        statement.setObject(9, product.getUnitPrice(), Types.DOUBLE);
+                    }));
+            report.setImported(report.getImported() + batch.size());
+            report.setBatches(report.getBatches() + 1);
+            log.info("Product import: {} rows read, {} imported, {} rejected",
+                    report.getRowsRead(), report.getImported(), report.getRejected());
+        } catch (DataAccessException e) {
+            String message = "Batch rolled back: " + e.getMostSpecificCause().getMessage();
+            for (Long line : batchLines) {
+                report.reject(line, message);
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+        onBatch.accept(report);
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Double parsePrice(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price '" + value + "'");
+        }
+    }
+
+    private static boolean parseAvailable(String value) {
+        if (value == null) {
+            return true;
+        }
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "1":
+                return true;
+            case "false":
+            case "no":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("Invalid available flag '" + value + "'");
+        }
+    }
+
+    // Returns null for rows that carry no product, such as the CSV header
+    private interface RowParser {
+        Product parse(String line);
+    }
+}
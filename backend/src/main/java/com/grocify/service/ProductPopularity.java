@@ -0,0 +1,104 @@
+package com.grocify.service;
+
+import com.grocify.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Units ordered per product, seeded from order history on first use and bumped by
+ * every order placed afterwards. Used to rank suggestions and fuzzy matches.
+ */
+@Component
+public class ProductPopularity {
+
+    private static final long RANKING_MAX_AGE_MILLIS = 1000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private final Map<Long, LongAdder> unitsOrdered = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    private volatile Ranking ranking;
+
+    public long getScore(long productId) {
+        ensureLoaded();
+        LongAdder units = unitsOrdered.get(productId);
+        return units == null ? 0 : units.sum();
+    }
+
+    /**
+     * Ids of the products with units ordered, most ordered first and then by id. Sorting
+     * every product on each call would cost more than most lookups it serves, so the
+     * ranking is rebuilt at most once a second and may miss the orders of the last second.
+     */
+    public long[] getRanking() {
+        ensureLoaded();
+        long now = System.currentTimeMillis();
+        Ranking current = ranking;
+        if (current == null || now - current.builtAt > RANKING_MAX_AGE_MILLIS) {
+            synchronized (this) {
+                current = ranking;
+                if (current == null || now - current.builtAt > RANKING_MAX_AGE_MILLIS) {
+                    current = new Ranking(rank(), now);
+                    ranking = current;
+                }
+            }
+        }
+        return current.productIds;
+    }
+
+    public void recordOrdered(long productId, int quantity) {
+        if (!loaded) {
+            // The first lookup seeds from the database, which will already include this order
+            return;
+        }
+        unitsOrdered.computeIfAbsent(productId, id -> new LongAdder()).add(quantity);
+    }
+
+    private long[] rank() {
+        List<long[]> scores = new ArrayList<>(unitsOrdered.size());
+        unitsOrdered.forEach((productId, units) -> scores.add(new long[] {productId, units.sum()}));
+        scores.sort(Comparator.<long[]>comparingLong(score -> -score[1]).thenComparingLong(score -> score[0]));
+        long[] productIds = new long[scores.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = scores.get(i)[0];
+        }
+        return productIds;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                for (Object[] row : orderRepository.sumQuantityByProduct()) {
+                    if (row[0] != null && row[1] != null) {
+                        unitsOrdered.computeIfAbsent(((Number) row[0]).longValue(), id -> new LongAdder())
+                                .add(((Number) row[1]).longValue());
+                    }
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    private static final class Ranking {
+        private final long[] productIds;
+        private final long builtAt;
+
+        private Ranking(long[] productIds, long builtAt) {
+            this.productIds = productIds;
+            this.builtAt = builtAt;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Products ordered by (price, id), like ProductUnitPriceIndex. A filtered page sorted by
+ * price walks the order from the cursor and stops as soon as the page is full. The walk
+ * passes over about count * size / matches entries, so a filter matching only a few
+ * products has its matches ranked directly instead; a page never costs more than the
+ * smaller of the two.
+ */
+@Component
+public class ProductPriceIndex implements CatalogListener {
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingDouble((Entry entry) -> entry.price).thenComparingLong(entry -> entry.productId);
+
+    private final NavigableSet<Entry> products = new TreeSet<>(ORDER);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void onCatalogLoaded(CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            for (Product product : snapshot.getProducts()) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(previous);
+            }
+            add(saved);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            remove(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the first {@code count} candidates strictly after the cursor position, in
+     * price order. Descending pages run from the most expensive product down, with ties
+     * on price in descending id order. Candidates without a price are left out.
+     */
+    public List<Long> page(RoaringBitmap candidates, CatalogSnapshot snapshot, Double afterPrice, Long afterId,
+                           int count, boolean descending) {
+        lock.readLock().lock();
+        try {
+            Entry cursor = afterPrice != null ? new Entry(afterPrice, afterId) : null;
+            long matches = candidates.getLongCardinality();
+            if (matches * matches < (long) count * products.size()) {
+                return rank(candidates, snapshot, cursor, count, descending);
+            }
+            List<Long> productIds = new ArrayList<>(count);
+            NavigableSet<Entry> ordered = descending ? products.descendingSet() : products;
+            if (cursor != null) {
+                ordered = ordered.tailSet(cursor, false);
+            }
+            for (Entry entry : ordered) {
+                if (candidates.contains(ProductFilterIndex.bitmapId(entry.productId))) {
+                    productIds.add(entry.productId);
+                    if (productIds.size() >= count) {
+                        break;
+                    }
+                }
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Keeps the first count matches after the cursor in a heap whose head is the last of them
+    private static List<Long> rank(RoaringBitmap candidates, CatalogSnapshot snapshot, Entry cursor, int count,
+                                   boolean descending) {
+        Comparator<Entry> order = descending ? ORDER.reversed() : ORDER;
+        PriorityQueue<Entry> top = new PriorityQueue<>(count + 1, order.reversed());
+        for (int productId : candidates) {
+            Optional<Product> product = snapshot.getProduct((long) productId);
+            if (product.isEmpty() || product.get().getPrice() == null) {
+                continue;
+            }
+            Entry entry = new Entry(product.get().getPrice(), productId);
+            if (cursor != null && order.compare(entry, cursor) <= 0) {
+                continue;
+            }
+            top.offer(entry);
+            if (top.size() > count) {
+                top.poll();
+            }
+        }
+        List<Entry> sorted = new ArrayList<>(top);
+        sorted.sort(order);
+        List<Long> productIds = new ArrayList<>(sorted.size());
+        for (Entry entry : sorted) {
+            productIds.add(entry.productId);
+        }
+        return productIds;
+    }
+
+    private void add(Product product) {
+        if (product.getPrice() != null) {
+            products.add(new Entry(product.getPrice(), product.getId()));
+        }
+    }
+
+    private void remove(Product product) {
+        if (product.getPrice() != null) {
+            products.remove(new Entry(product.getPrice(), product.getId()));
+        }
+    }
+
+    private static final class Entry {
+
+        private final double price;
+        private final long productId;
+
+        private Entry(double price, long productId) {
+            this.price = price;
+            this.productId = productId;
+        }
+    }
+}
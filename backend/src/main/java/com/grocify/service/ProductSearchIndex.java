@@ -0,0 +1,352 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import com.grocify.util.TextTokens;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted trigram index over product name, category and description. Every word is
+ * indexed by its inner trigrams plus one- and two-letter prefix grams, so both
+ * substrings ("mato") and the first keystrokes of a word ("to") resolve to a posting
+ * intersection instead of a LIKE scan.
+ * A query word of four letters or more has several trigrams, and a product can hold all
+ * of them without containing the word: "matcha potato" has both grams of "mato". Such
+ * candidates are checked against the product's text before ranking. The gram score is
+ * an upper bound of the checked one, so only candidates that could still make the page
+ * are checked.
+ */
+@Component
+public class ProductSearchIndex implements CatalogListener {
+
+    private static final int NAME_FIELD = 1;
+    private static final int CATEGORY_FIELD = 2;
+    private static final int DESCRIPTION_FIELD = 4;
+
+    private static final int MAX_QUERY_WORDS = 16;
+
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparingInt(SearchHit::getScore).reversed()
+            .thenComparingLong(SearchHit::getProductId);
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void onCatalogLoaded(CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            for (Product product : snapshot.getProducts()) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(previous);
+            }
+            add(saved);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            remove(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best hits ranked strictly after the given cursor hit. Candidates are
+     * checked against their text in the snapshot, the one the caller renders them from.
+     */
+    public List<SearchHit> search(String query, SearchHit after, int limit, CatalogSnapshot snapshot) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(TextTokens.tokenize(query)));
+        if (words.size() > MAX_QUERY_WORDS) {
+            words = words.subList(0, MAX_QUERY_WORDS);
+        }
+        // Gram to the bit set of the query words it was cut from
+        Map<String, Integer> grams = new LinkedHashMap<>();
+        for (int w = 0; w < words.size(); w++) {
+            for (String gram : queryGrams(words.get(w))) {
+                grams.merge(gram, 1 << w, (a, b) -> a | b);
+            }
+        }
+        if (grams.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        boolean needsCheck = false;
+        for (String word : words) {
+            needsCheck |= word.length() > 3;
+        }
+
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            List<QueryGram> lists = new ArrayList<>(grams.size());
+            for (Map.Entry<String, Integer> gram : grams.entrySet()) {
+                Postings list = postings.get(gram.getKey());
+                if (list == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(new QueryGram(list, gram.getValue()));
+            }
+            lists.sort(Comparator.comparingInt(gram -> gram.postings.size));
+
+            Postings rarest = lists.get(0).postings;
+            byte[] masks = new byte[lists.size()];
+            candidates:
+            for (int i = 0; i < rarest.size; i++) {
+                long productId = rarest.ids[i];
+                masks[0] = rarest.masks[i];
+                int bound = weight(masks[0]);
+                for (int j = 1; j < lists.size(); j++) {
+                    Postings other = lists.get(j).postings;
+                    int index = other.indexOf(productId);
+                    if (index < 0) {
+                        continue candidates;
+                    }
+                    masks[j] = other.masks[index];
+                    bound += weight(masks[j]);
+                }
+                // Ids ascend, so a later candidate only displaces the worst hit on a strictly higher score
+                if (top.size() == limit && bound <= top.peek().getScore()) {
+                    continue;
+                }
+                int score = needsCheck ? checkedScore(productId, words, lists, masks, snapshot) : bound;
+                if (score == 0 || (after != null && (score > after.getScore()
+                        || (score == after.getScore() && productId <= after.getProductId())))) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.offer(new SearchHit(productId, score));
+                } else if (score > top.peek().getScore()) {
+                    top.poll();
+                    top.offer(new SearchHit(productId, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    // The gram score counting only fields that contain the whole query word; 0 when some word is not in the text
+    private static int checkedScore(long productId, List<String> words, List<QueryGram> lists, byte[] masks,
+                                    CatalogSnapshot snapshot) {
+        Product product = snapshot.getProduct(productId).orElse(null);
+        if (product == null) {
+            return 0;
+        }
+        String name = TextTokens.normalize(product.getName());
+        String category = TextTokens.normalize(product.getCategory());
+        String description = TextTokens.normalize(product.getDescription());
+        int[] wordFields = new int[words.size()];
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            if (word.length() <= 3) {
+                // A single gram, which the posting matches exactly
+                wordFields[w] = NAME_FIELD | CATEGORY_FIELD | DESCRIPTION_FIELD;
+                continue;
+            }
+            // Normalized text is words joined by single spaces, so this is "some word contains it"
+            if (name.contains(word)) {
+                wordFields[w] |= NAME_FIELD;
+            }
+            if (category.contains(word)) {
+                wordFields[w] |= CATEGORY_FIELD;
+            }
+            if (description.contains(word)) {
+                wordFields[w] |= DESCRIPTION_FIELD;
+            }
+            if (wordFields[w] == 0) {
+                return 0;
+            }
+        }
+        int score = 0;
+        for (int j = 0; j < lists.size(); j++) {
+            int fields = 0;
+            for (int w = 0; w < words.size(); w++) {
+                if ((lists.get(j).words & (1 << w)) != 0) {
+                    fields |= wordFields[w];
+                }
+            }
+            score += weight((byte) (masks[j] & fields));
+        }
+        return score;
+    }
+
+    private void add(Product product) {
+        for (Map.Entry<String, Integer> entry : productGrams(product).entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), gram -> new Postings())
+                    .put(product.getId(), entry.getValue());
+        }
+    }
+
+    private void remove(Product product) {
+        for (String gram : productGrams(product).keySet()) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(product.getId()) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static Map<String, Integer> productGrams(Product product) {
+        Map<String, Integer> grams = new HashMap<>();
+        addFieldGrams(grams, product.getName(), NAME_FIELD);
+        addFieldGrams(grams, product.getCategory(), CATEGORY_FIELD);
+        addFieldGrams(grams, product.getDescription(), DESCRIPTION_FIELD);
+        return grams;
+    }
+
+    private static void addFieldGrams(Map<String, Integer> grams, String text, int field) {
+        for (String word : TextTokens.tokenize(text)) {
+            grams.merge("$" + word.charAt(0), field, (a, b) -> a | b);
+            if (word.length() >= 2) {
+                grams.merge("$" + word.substring(0, 2), field, (a, b) -> a | b);
+            }
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                grams.merge(word.substring(i, i + 3), field, (a, b) -> a | b);
+            }
+        }
+    }
+
+    private static List<String> queryGrams(String word) {
+        if (word.length() < 3) {
+            return List.of("$" + word);
+        }
+        List<String> grams = new ArrayList<>(word.length() - 2);
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            grams.add(word.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static int weight(byte fields) {
+        int weight = 0;
+        if ((fields & NAME_FIELD) != 0) {
+            weight += 3;
+        }
+        if ((fields & CATEGORY_FIELD) != 0) {
+            weight += 2;
+        }
+        if ((fields & DESCRIPTION_FIELD) != 0) {
+            weight += 1;
+        }
+        return weight;
+    }
+
+    private static final class QueryGram {
+        private final Postings postings;
+        // Bit set of the query words the gram was cut from
+        private final int words;
+
+        QueryGram(Postings postings, int words) {
+            this.postings = postings;
+            this.words = words;
+        }
+    }
+
+    // Product ids kept sorted so lookups during intersection are binary searches
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private byte[] masks = new byte[4];
+        private int size;
+
+        int indexOf(long productId) {
+            return Arrays.binarySearch(ids, 0, size, productId);
+        }
+
+        void put(long productId, int fields) {
+            int index = indexOf(productId);
+            if (index >= 0) {
+                masks[index] = (byte) fields;
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                masks = Arrays.copyOf(masks, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            System.arraycopy(masks, insertAt, masks, insertAt + 1, size - insertAt);
+            ids[insertAt] = productId;
+            masks[insertAt] = (byte) fields;
+            size++;
+        }
+
+        boolean remove(long productId) {
+            int index = indexOf(productId);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(masks, index + 1, masks, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    public static final class SearchHit {
+        private final long productId;
+        private final int score;
+
+        public SearchHit(long productId, int score) {
+            this.productId = productId;
+            this.score = score;
+        }
+
+        public long getProductId() {
+            return productId;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public String toCursor() {
+            return score + ":" + productId;
+        }
+
+        public static SearchHit fromCursor(String cursor) {
+            int separator = cursor.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+            }
+            try {
+                return new SearchHit(Long.parseLong(cursor.substring(separator + 1)),
+                        Integer.parseInt(cursor.substring(0, separator)));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+            }
+        }
+    }
+}
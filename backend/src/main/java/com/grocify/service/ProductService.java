@@ -1,41 +1,400 @@
 package com.grocify.service;
 
+import com.grocify.dto.CategoryNode;
+import com.grocify.dto.ProductBatchResponse;
+import com.grocify.dto.ProductFilter;
+import com.grocify.dto.ProductPage;
+import com.grocify.dto.ProductSuggestion;
+import com.grocify.dto.ProductSummary;
 import com.grocify.entity.Product;
 import com.grocify.repository.ProductRepository;
+import com.grocify.util.UnitPriceParser;
+import jakarta.persistence.EntityManagerFactory;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ProductService {
-    
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
     @Autowired
     private ProductRepository productRepository;
-    
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductFacets productFacets;
+
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+
+    @Autowired
+    private ProductFuzzyIndex fuzzyIndex;
+
+    @Autowired
+    private ProductFilterIndex filterIndex;
+
+    @Autowired
+    private ProductPriceIndex priceIndex;
+
+    @Autowired
+    private ProductUnitPriceIndex unitPriceIndex;
+
+    @Autowired
+    private ProductCategoryTree categoryTree;
+
+    @Autowired
+    private ProductSimilarityIndex similarityIndex;
+
+    @Autowired
+    private List<CatalogListener> catalogListeners;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Reads are served from this snapshot; writes update the listeners and then publish a replacement
+    private volatile CatalogSnapshot catalog;
+
+    private final Object writeLock = new Object();
+
+    private final TransactionTemplate writeTransaction;
+
+    // Repeatable read, so the products and the catalog version come from one consistent view
+    private final TransactionTemplate loadTransaction;
+
+    @Autowired
+    public ProductService(PlatformTransactionManager transactionManager) {
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setReadOnly(true);
+        this.loadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
     public List<Product> getAllProducts() {
-        return productRepository.findByAvailableTrue();
+        return getCatalog().getAvailableProducts();
     }
-    
+
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return getCatalog().getProduct(id);
+    }
+
+    // One multi-get against the catalog; duplicate ids are returned once, at their first position
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids can be requested at once");
+        }
+        CatalogSnapshot snapshot = getCatalog();
+        List<Product> products = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Optional<Product> product = id == null ? Optional.empty() : snapshot.getProduct(id);
+            if (product.isPresent()) {
+                products.add(product.get());
+            } else if (id != null) {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatchResponse(products, missingIds);
+    }
+
+    public List<ProductSummary> getProductsByCategory(String category) {
+        return ProductSummary.of(getCatalog().getProductsByCategory(category));
+    }
+
+    public List<ProductSummary> searchProducts(String name, int limit) {
+        return searchProductsPage(name, null, limit).getItems();
     }
-    
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        CatalogSnapshot snapshot = getCatalog();
+        List<ProductSuggestion> suggestions = new ArrayList<>();
+        for (Long productId : suggestIndex.suggest(prefix, limit)) {
+            snapshot.getProduct(productId).ifPresent(product ->
+                    suggestions.add(new ProductSuggestion(product.getId(), product.getName(), product.getCategory())));
+        }
+        return suggestions;
+    }
+
+    // Empty when the product does not exist
+    public List<ProductSummary> getSimilarProducts(Long id, int limit) {
+        CatalogSnapshot snapshot = getCatalog();
+        Optional<Product> product = snapshot.getProduct(id);
+        if (product.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ProductSummary> similar = new ArrayList<>();
+        for (Long productId : similarityIndex.similar(product.get(), snapshot, pageSize(limit))) {
+            snapshot.getProduct(productId).ifPresent(match -> similar.add(new ProductSummary(match)));
+        }
+        return similar;
+    }
+
+    public List<CategoryNode> getCategoryTree() {
+        getCatalog();
+        return categoryTree.getTree();
+    }
+
+    public Map<String, Object> getFacets() {
+        getCatalog();
+        return productFacets.getFacets();
+    }
+
+    public List<Product> fuzzySearchProducts(String name, int limit) {
+        CatalogSnapshot snapshot = getCatalog();
+        List<Product> products = new ArrayList<>();
+        for (Long productId : fuzzyIndex.search(name, pageSize(limit))) {
+            snapshot.getProduct(productId).ifPresent(products::add);
+        }
+        return products;
+    }
+
+    public ProductPage<ProductSummary> filterProducts(ProductFilter filter, String after, int limit) {
+        int pageSize = pageSize(limit);
+        CatalogSnapshot snapshot = getCatalog();
+        RoaringBitmap matches = filterIndex.match(filter, snapshot);
+        if (filter.getUnit() != null) {
+            if (!UnitPriceParser.UNITS.contains(filter.getUnit())) {
+                throw new IllegalArgumentException("Unsupported unit: " + filter.getUnit());
+            }
+            matches = unitPriceIndex.match(matches, filter.getUnit(), filter.getMinUnitPrice(), filter.getMaxUnitPrice());
+        } else if (filter.getMinUnitPrice() != null || filter.getMaxUnitPrice() != null
+                || ProductFilter.SORT_UNIT_PRICE_ASC.equals(filter.getSort())
+                || ProductFilter.SORT_UNIT_PRICE_DESC.equals(filter.getSort())) {
+            throw new IllegalArgumentException("Filtering or sorting by unit price requires a unit");
+        }
+
+        switch (filter.getSort()) {
+            case ProductFilter.SORT_ID:
+                return summaries(idPage(matches, snapshot, after == null ? null : Long.valueOf(after), pageSize));
+            case ProductFilter.SORT_PRICE_ASC:
+                return summaries(pricePage(matches, snapshot, after, pageSize, false));
+            case ProductFilter.SORT_PRICE_DESC:
+                return summaries(pricePage(matches, snapshot, after, pageSize, true));
+            case ProductFilter.SORT_UNIT_PRICE_ASC:
+                return summaries(unitPricePage(matches, snapshot, filter.getUnit(), after, pageSize, false));
+            case ProductFilter.SORT_UNIT_PRICE_DESC:
+                return summaries(unitPricePage(matches, snapshot, filter.getUnit(), after, pageSize, true));
+            default:
+                throw new IllegalArgumentException("Unsupported sort: " + filter.getSort());
+        }
+    }
+
+    public ProductPage<ProductSummary> getAllProductsPage(Long after, int limit) {
+        return summaries(idPage(getCatalog().getAvailableProducts(), after, limit));
     }
-    
-    public List<Product> searchProducts(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+
+    public ProductPage<ProductSummary> getProductsByCategoryPage(String category, Long after, int limit) {
+        return summaries(idPage(getCatalog().getProductsByCategory(category), after, limit));
     }
-    
+
+    public ProductPage<ProductSummary> searchProductsPage(String name, String after, int limit) {
+        int pageSize = pageSize(limit);
+        ProductSearchIndex.SearchHit cursor = after == null ? null : ProductSearchIndex.SearchHit.fromCursor(after);
+        CatalogSnapshot snapshot = getCatalog();
+        List<ProductSearchIndex.SearchHit> hits = searchIndex.search(name, cursor, pageSize + 1, snapshot);
+        if (hits.isEmpty() && cursor == null) {
+            // No exact hits: fall back to typo-tolerant matches, returned as a single page
+            return new ProductPage<>(ProductSummary.of(fuzzySearchProducts(name, pageSize)), null);
+        }
+
+        List<ProductSummary> products = new ArrayList<>(Math.min(hits.size(), pageSize));
+        for (ProductSearchIndex.SearchHit hit : hits.subList(0, Math.min(hits.size(), pageSize))) {
+            snapshot.getProduct(hit.getProductId()).ifPresent(product -> products.add(new ProductSummary(product)));
+        }
+        String nextCursor = hits.size() > pageSize ? hits.get(pageSize - 1).toCursor() : null;
+        return new ProductPage<>(products, nextCursor);
+    }
+
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        synchronized (writeLock) {
+            CatalogSnapshot current = getCatalog();
+            long[] version = new long[1];
+            Product savedProduct = writeTransaction.execute(status -> {
+                Product saved = productRepository.save(product);
+                version[0] = catalogVersionService.publish();
+                return saved;
+            });
+            if (!catalogVersionService.appliedWrite(version[0])) {
+                // Another node wrote in between, so this snapshot would be missing its changes
+                loadCatalog();
+                return savedProduct;
+            }
+            Product previous = current.getProduct(savedProduct.getId()).orElse(null);
+            CatalogSnapshot next = current.withProduct(version[0], savedProduct);
+            for (CatalogListener listener : catalogListeners) {
+                listener.onProductSaved(previous, savedProduct, next);
+            }
+            catalog = next;
+            return savedProduct;
+        }
     }
-    
+
     public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+        synchronized (writeLock) {
+            CatalogSnapshot current = getCatalog();
+            Optional<Product> removed = current.getProduct(id);
+            long version = writeTransaction.execute(status -> {
+                productRepository.deleteById(id);
+                return removed.isPresent() ? catalogVersionService.publish() : -1L;
+            });
+            if (removed.isEmpty()) {
+                return;
+            }
+            if (!catalogVersionService.appliedWrite(version)) {
+                loadCatalog();
+                return;
+            }
+            CatalogSnapshot next = current.withoutProduct(version, id);
+            for (CatalogListener listener : catalogListeners) {
+                listener.onProductDeleted(removed.get(), next);
+            }
+            catalog = next;
+        }
     }
-}
 
+    private static ProductPage<ProductSummary> summaries(ProductPage<Product> page) {
+        return new ProductPage<>(ProductSummary.of(page.getItems()), page.getNextCursor());
+    }
+
+    private static ProductPage<Product> idPage(List<Product> idSorted, Long after, int limit) {
+        int pageSize = pageSize(limit);
+        List<Product> slice = CatalogSnapshot.pageAfter(idSorted, after, pageSize);
+        if (slice.size() <= pageSize) {
+            return new ProductPage<>(new ArrayList<>(slice), null);
+        }
+        List<Product> items = new ArrayList<>(slice.subList(0, pageSize));
+        return new ProductPage<>(items, String.valueOf(items.get(pageSize - 1).getId()));
+    }
+
+    private static ProductPage<Product> idPage(RoaringBitmap matches, CatalogSnapshot snapshot, Long after, int pageSize) {
+        PeekableIntIterator ids = matches.getIntIterator();
+        if (after != null) {
+            if (after >= Integer.MAX_VALUE) {
+                return new ProductPage<>(new ArrayList<>(), null);
+            }
+            ids.advanceIfNeeded((int) Math.max(0, after + 1));
+        }
+        List<Product> items = new ArrayList<>(pageSize);
+        while (ids.hasNext() && items.size() < pageSize) {
+            snapshot.getProduct((long) ids.next()).ifPresent(items::add);
+        }
+        String nextCursor = ids.hasNext() && !items.isEmpty() ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        return new ProductPage<>(items, nextCursor);
+    }
+
+    // Keyset on (price, id); the cursor is the last item's "price:id"
+    private ProductPage<Product> pricePage(RoaringBitmap matches, CatalogSnapshot snapshot, String after,
+                                           int pageSize, boolean descending) {
+        Double afterPrice = null;
+        Long afterId = null;
+        if (after != null) {
+            int separator = after.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid price cursor: " + after);
+            }
+            afterPrice = Double.valueOf(after.substring(0, separator));
+            afterId = Long.valueOf(after.substring(separator + 1));
+        }
+
+        List<Long> productIds = priceIndex.page(matches, snapshot, afterPrice, afterId, pageSize + 1, descending);
+        List<Product> items = new ArrayList<>(pageSize);
+        for (Long productId : productIds.subList(0, Math.min(productIds.size(), pageSize))) {
+            snapshot.getProduct(productId).ifPresent(items::add);
+        }
+        if (productIds.size() <= pageSize || items.isEmpty()) {
+            return new ProductPage<>(items, null);
+        }
+        Product last = items.get(items.size() - 1);
+        return new ProductPage<>(items, last.getPrice() + ":" + last.getId());
+    }
+
+    private ProductPage<Product> unitPricePage(RoaringBitmap matches, CatalogSnapshot snapshot, String unit,
+                                               String after, int pageSize, boolean descending) {
+        Double afterUnitPrice = null;
+        Long afterId = null;
+        if (after != null) {
+            int separator = after.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid unit price cursor: " + after);
+            }
+            afterUnitPrice = Double.valueOf(after.substring(0, separator));
+            afterId = Long.valueOf(after.substring(separator + 1));
+        }
+
+        List<Long> productIds = unitPriceIndex.page(matches, snapshot, unit, afterUnitPrice, afterId, pageSize + 1, descending);
+        List<Product> items = new ArrayList<>(pageSize);
+        for (Long productId : productIds.subList(0, Math.min(productIds.size(), pageSize))) {
+            snapshot.getProduct(productId).ifPresent(items::add);
+        }
+        if (productIds.size() <= pageSize || items.isEmpty()) {
+            return new ProductPage<>(items, null);
+        }
+        Product last = items.get(items.size() - 1);
+        return new ProductPage<>(items, last.getUnitPrice() + ":" + last.getId());
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    public CatalogSnapshot getCatalog() {
+        CatalogSnapshot snapshot = catalog;
+        if (snapshot == null) {
+            synchronized (writeLock) {
+                snapshot = catalog;
+                if (snapshot == null) {
+                    snapshot = loadCatalog();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    // For writes that bypassed this service: bumps the shared version, so their ETags change and other nodes reload too
+    public CatalogSnapshot reloadCatalog() {
+        synchronized (writeLock) {
+            catalogVersionService.publish();
+            return loadCatalog();
+        }
+    }
+
+    // For writes made by other nodes, which have already bumped the shared version
+    public CatalogSnapshot refreshCatalog() {
+        return loadCatalog();
+    }
+
+    // Cached Product rows may be stale too
+    private CatalogSnapshot loadCatalog() {
+        synchronized (writeLock) {
+            entityManagerFactory.getCache().evict(Product.class);
+            CatalogSnapshot snapshot = loadTransaction.execute(status ->
+                    CatalogSnapshot.of(catalogVersionService.currentVersion(), productRepository.findAll()));
+            for (CatalogListener listener : catalogListeners) {
+                listener.onCatalogLoaded(snapshot);
+            }
+            catalog = snapshot;
+            catalogVersionService.appliedLoad(snapshot.getVersion());
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import com.grocify.util.TextTokens;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Locality-sensitive hashing over the words of each product's name, description and
+ * category. A product's 64 MinHash values are cut into 32 bands of 2; products that agree
+ * on a whole band share that band's bucket, which happens with probability j^2 per band for
+ * word sets with Jaccard similarity j. Short product texts rarely reach a high j, hence the
+ * narrow bands. Similar products are the ones sharing most buckets.
+ * Only available products are put in buckets, since only they are recommended, and a
+ * lookup reads at most {@link #MAX_CANDIDATES_PER_BAND} ids per bucket, so its cost does
+ * not grow with the catalog.
+ */
+@Component
+public class ProductSimilarityIndex implements CatalogListener {
+
+    private static final int HASHES = 64;
+
+    private static final int BANDS = 32;
+
+    private static final int ROWS_PER_BAND = HASHES / BANDS;
+
+    private static final int MAX_CANDIDATES_PER_BAND = 32;
+
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "and", "the", "for", "with", "from", "our", "range", "fresh", "pack", "pcs", "pieces");
+
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        for (int i = 0; i < HASHES; i++) {
+            SEEDS[i] = random.nextLong();
+        }
+    }
+
+    @Autowired
+    private ProductPopularity popularity;
+
+    // Bucket key (band and the band's hash values) to the ids of the products in it
+    private final Map<Long, RoaringBitmap> buckets = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void onCatalogLoaded(CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            buckets.clear();
+            for (Product product : snapshot.getProducts()) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(previous);
+            }
+            add(saved);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            remove(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of available products ranked by the number of buckets shared with the product, then popularity
+    public List<Long> similar(Product product, CatalogSnapshot snapshot, int limit) {
+        Map<Long, Integer> sharedBands = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (long key : bucketKeys(product)) {
+                RoaringBitmap bucket = buckets.get(key);
+                if (bucket == null) {
+                    continue;
+                }
+                IntIterator ids = bucket.getIntIterator();
+                for (int read = 0; ids.hasNext() && read < MAX_CANDIDATES_PER_BAND; read++) {
+                    sharedBands.merge((long) ids.next(), 1, Integer::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        sharedBands.remove(product.getId());
+        // Buckets hold no unavailable products; this only covers a write the index has not seen yet
+        sharedBands.keySet().removeIf(id ->
+                snapshot.getProduct(id).map(candidate -> !candidate.isAvailable()).orElse(true));
+
+        List<Long> ranked = new ArrayList<>(sharedBands.keySet());
+        ranked.sort(Comparator.<Long>comparingInt(sharedBands::get).reversed()
+                .thenComparing(Comparator.<Long>comparingLong(popularity::getScore).reversed())
+                .thenComparing(Comparator.naturalOrder()));
+        return ranked.subList(0, Math.min(limit, ranked.size()));
+    }
+
+    private void add(Product product) {
+        if (!product.isAvailable()) {
+            return;
+        }
+        int productId = ProductFilterIndex.bitmapId(product.getId());
+        for (long key : bucketKeys(product)) {
+            buckets.computeIfAbsent(key, ignored -> new RoaringBitmap()).add(productId);
+        }
+    }
+
+    private void remove(Product product) {
+        if (!product.isAvailable()) {
+            return;
+        }
+        int productId = ProductFilterIndex.bitmapId(product.getId());
+        for (long key : bucketKeys(product)) {
+            RoaringBitmap bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(productId);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long[] bucketKeys(Product product) {
+        Set<String> words = words(product);
+        if (words.isEmpty()) {
+            return new long[0];
+        }
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String word : words) {
+            long wordHash = fnv1a(word);
+            for (int i = 0; i < HASHES; i++) {
+                signature[i] = Math.min(signature[i], mix(wordHash ^ SEEDS[i]));
+            }
+        }
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                key = mix(key * 0x9E3779B97F4A7C15L + signature[band * ROWS_PER_BAND + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private static Set<String> words(Product product) {
+        Set<String> words = new HashSet<>();
+        for (String text : new String[] {product.getName(), product.getDescription(), product.getCategory()}) {
+            for (String token : TextTokens.tokenize(text)) {
+                // Pack sizes such as "500g" say nothing about what the product is
+                if (token.length() >= MIN_WORD_LENGTH && !STOP_WORDS.contains(token)
+                        && token.chars().noneMatch(Character::isDigit)) {
+                    words.add(token);
+                }
+            }
+        }
+        return words;
+    }
+
+    private static long fnv1a(String word) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            hash ^= word.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
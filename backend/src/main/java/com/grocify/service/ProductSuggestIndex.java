@@ -0,0 +1,236 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import com.grocify.util.TextTokens;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted term dictionary for typeahead. Each product is reachable through its full
+ * normalized name, every word of the name and its category, so a prefix lookup is a
+ * range scan over the dictionary for the matching products, followed by a popularity
+ * top-N. A prefix matching few products has them ranked directly; one matching many,
+ * such as "org" on a large catalog, walks the popularity ranking instead and stops as
+ * soon as the page is full, so neither reads the score of every match. One- and
+ * two-letter prefixes span so many terms that even collecting their matches is slow,
+ * so their results are cached briefly.
+ */
+@Component
+public class ProductSuggestIndex implements CatalogListener {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final int CACHED_PREFIX_LENGTH = 2;
+
+    private static final long CACHE_TTL_MILLIS = 60_000;
+
+    @Autowired
+    private ProductPopularity popularity;
+
+    // Most popular first, then lowest id
+    private static final Comparator<Candidate> RANKING = Comparator.comparingLong((Candidate candidate) -> -candidate.score)
+            .thenComparingLong(candidate -> candidate.productId);
+
+    private final TreeMap<String, RoaringBitmap> terms = new TreeMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, CachedSuggestions> shortPrefixCache = new ConcurrentHashMap<>();
+
+    // Bumped under the write lock by every change. A result ranked before a change can still be
+    // put after the change cleared the cache, so cached results only count for their generation.
+    private volatile long generation;
+
+    @Override
+    public void onCatalogLoaded(CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            for (Product product : snapshot.getProducts()) {
+                add(product);
+            }
+            generation++;
+            shortPrefixCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(previous);
+            }
+            add(saved);
+            generation++;
+            shortPrefixCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            remove(removed);
+            generation++;
+            shortPrefixCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Product ids whose name or category starts with the prefix, most ordered first
+    public List<Long> suggest(String prefix, int limit) {
+        String normalized = TextTokens.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int size = Math.min(limit, MAX_SUGGESTIONS);
+        if (normalized.length() > CACHED_PREFIX_LENGTH) {
+            lock.readLock().lock();
+            try {
+                return rank(normalized, size);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        CachedSuggestions cached = shortPrefixCache.get(normalized);
+        if (cached == null || cached.generation != generation || now - cached.computedAt > CACHE_TTL_MILLIS) {
+            lock.readLock().lock();
+            try {
+                cached = new CachedSuggestions(rank(normalized, MAX_SUGGESTIONS), generation, now);
+            } finally {
+                lock.readLock().unlock();
+            }
+            shortPrefixCache.put(normalized, cached);
+        }
+        return cached.productIds.subList(0, Math.min(size, cached.productIds.size()));
+    }
+
+    // Callers hold the read lock
+    private List<Long> rank(String prefix, int limit) {
+        RoaringBitmap matches = FastAggregation.or(
+                terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().iterator());
+        long[] ranking = popularity.getRanking();
+        long count = matches.getLongCardinality();
+        // Walking the ranking passes about limit * ranking.length / count products before the page is full
+        if (count * count < (long) limit * ranking.length) {
+            return rankMatches(matches, limit);
+        }
+
+        List<Long> ranked = new ArrayList<>(limit);
+        RoaringBitmap taken = new RoaringBitmap();
+        for (long productId : ranking) {
+            int bitmapId = ProductFilterIndex.bitmapId(productId);
+            if (matches.contains(bitmapId)) {
+                ranked.add(productId);
+                taken.add(bitmapId);
+                if (ranked.size() >= limit) {
+                    return ranked;
+                }
+            }
+        }
+        // Every ranked match is taken; the rest have nothing ordered and follow by id
+        IntIterator rest = matches.getIntIterator();
+        while (ranked.size() < limit && rest.hasNext()) {
+            int productId = rest.next();
+            if (!taken.contains(productId)) {
+                ranked.add((long) productId);
+            }
+        }
+        return ranked;
+    }
+
+    // Keeps the first limit matches in a heap whose head is the last of them, reading each score once
+    private List<Long> rankMatches(RoaringBitmap matches, int limit) {
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (int productId : matches) {
+            Candidate candidate = new Candidate(productId, popularity.getScore(productId));
+            if (top.size() < limit || RANKING.compare(candidate, top.peek()) < 0) {
+                top.offer(candidate);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Candidate> sorted = new ArrayList<>(top);
+        sorted.sort(RANKING);
+        List<Long> ranked = new ArrayList<>(sorted.size());
+        for (Candidate candidate : sorted) {
+            ranked.add(candidate.productId);
+        }
+        return ranked;
+    }
+
+    private void add(Product product) {
+        int productId = ProductFilterIndex.bitmapId(product.getId());
+        for (String term : productTerms(product)) {
+            terms.computeIfAbsent(term, key -> new RoaringBitmap()).add(productId);
+        }
+    }
+
+    private void remove(Product product) {
+        int productId = ProductFilterIndex.bitmapId(product.getId());
+        for (String term : productTerms(product)) {
+            RoaringBitmap productIds = terms.get(term);
+            if (productIds != null && productIds.checkedRemove(productId) && productIds.isEmpty()) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    private static Set<String> productTerms(Product product) {
+        Set<String> productTerms = new LinkedHashSet<>();
+        for (String text : new String[] {product.getName(), product.getCategory()}) {
+            String normalized = TextTokens.normalize(text);
+            if (!normalized.isEmpty()) {
+                productTerms.add(normalized);
+                productTerms.addAll(TextTokens.tokenize(normalized));
+            }
+        }
+        return productTerms;
+    }
+
+    private static final class Candidate {
+        private final long productId;
+        private final long score;
+
+        private Candidate(long productId, long score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+
+    private static final class CachedSuggestions {
+        private final List<Long> productIds;
+        private final long generation;
+        private final long computedAt;
+
+        private CachedSuggestions(List<Long> productIds, long generation, long computedAt) {
+            this.productIds = productIds;
+            this.generation = generation;
+            this.computedAt = computedAt;
+        }
+    }
+}
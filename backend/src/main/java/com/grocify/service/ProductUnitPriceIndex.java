@@ -0,0 +1,201 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Products ordered by (unit price, id), one ordered set per unit type. A filtered page
+ * sorted by unit price walks the unit's set from the cursor and stops as soon as the page
+ * is full. The walk passes over about count * size / matches entries, so a filter matching
+ * only a few of the unit's products, such as a small category, has its matches ranked
+ * directly instead, as in ProductPriceIndex; a page never costs more than the smaller of
+ * the two.
+ */
+@Component
+public class ProductUnitPriceIndex implements CatalogListener {
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingDouble((Entry entry) -> entry.unitPrice).thenComparingLong(entry -> entry.productId);
+
+    private final Map<String, NavigableSet<Entry>> productsByUnit = new HashMap<>();
+
+    private final Map<String, RoaringBitmap> productIdsByUnit = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void onCatalogLoaded(CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            productsByUnit.clear();
+            productIdsByUnit.clear();
+            for (Product product : snapshot.getProducts()) {
+                add(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductSaved(Product previous, Product saved, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                remove(previous);
+            }
+            add(saved);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onProductDeleted(Product removed, CatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            remove(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Narrows candidates to one unit type and, when bounds are given, to a unit price range
+    public RoaringBitmap match(RoaringBitmap candidates, String unit, Double minUnitPrice, Double maxUnitPrice) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> products = productsByUnit.get(unit);
+            if (products == null) {
+                return new RoaringBitmap();
+            }
+            if (minUnitPrice == null && maxUnitPrice == null) {
+                return RoaringBitmap.and(candidates, productIdsByUnit.get(unit));
+            }
+            Entry from = new Entry(minUnitPrice != null ? minUnitPrice : Double.NEGATIVE_INFINITY, Long.MIN_VALUE);
+            Entry to = new Entry(maxUnitPrice != null ? maxUnitPrice : Double.POSITIVE_INFINITY, Long.MAX_VALUE);
+            if (ORDER.compare(from, to) > 0) {
+                return new RoaringBitmap();
+            }
+            RoaringBitmap inRange = new RoaringBitmap();
+            for (Entry entry : products.subSet(from, true, to, true)) {
+                inRange.add(ProductFilterIndex.bitmapId(entry.productId));
+            }
+            return RoaringBitmap.and(candidates, inRange);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the first {@code count} candidates strictly after the cursor position, in
+     * unit price order. Descending pages run from the most expensive unit price down,
+     * with ties on price in descending id order.
+     */
+    public List<Long> page(RoaringBitmap candidates, CatalogSnapshot snapshot, String unit, Double afterUnitPrice,
+                           Long afterId, int count, boolean descending) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> products = productsByUnit.get(unit);
+            if (products == null) {
+                return new ArrayList<>();
+            }
+            Entry cursor = afterUnitPrice != null ? new Entry(afterUnitPrice, afterId) : null;
+            long matches = candidates.getLongCardinality();
+            if (matches * matches < (long) count * products.size()) {
+                return rank(candidates, snapshot, unit, cursor, count, descending);
+            }
+            List<Long> productIds = new ArrayList<>(count);
+            NavigableSet<Entry> ordered = descending ? products.descendingSet() : products;
+            if (cursor != null) {
+                ordered = ordered.tailSet(cursor, false);
+            }
+            for (Entry entry : ordered) {
+                if (candidates.contains(ProductFilterIndex.bitmapId(entry.productId))) {
+                    productIds.add(entry.productId);
+                    if (productIds.size() >= count) {
+                        break;
+                    }
+                }
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Keeps the first count matches after the cursor in a heap whose head is the last of them
+    private static List<Long> rank(RoaringBitmap candidates, CatalogSnapshot snapshot, String unit, Entry cursor,
+                                   int count, boolean descending) {
+        Comparator<Entry> order = descending ? ORDER.reversed() : ORDER;
+        PriorityQueue<Entry> top = new PriorityQueue<>(count + 1, order.reversed());
+        for (int productId : candidates) {
+            Optional<Product> product = snapshot.getProduct((long) productId);
+            if (product.isEmpty() || !unit.equals(product.get().getUnitType()) || product.get().getUnitPrice() == null) {
+                continue;
+            }
+            Entry entry = new Entry(product.get().getUnitPrice(), productId);
+            if (cursor != null && order.compare(entry, cursor) <= 0) {
+                continue;
+            }
+            top.offer(entry);
+            if (top.size() > count) {
+                top.poll();
+            }
+        }
+        List<Entry> sorted = new ArrayList<>(top);
+        sorted.sort(order);
+        List<Long> productIds = new ArrayList<>(sorted.size());
+        for (Entry entry : sorted) {
+            productIds.add(entry.productId);
+        }
+        return productIds;
+    }
+
+    private void add(Product product) {
+        if (product.getUnitType() == null || product.getUnitPrice() == null) {
+            return;
+        }
+        productsByUnit.computeIfAbsent(product.getUnitType(), unit -> new TreeSet<>(ORDER))
+                .add(new Entry(product.getUnitPrice(), product.getId()));
+        productIdsByUnit.computeIfAbsent(product.getUnitType(), unit -> new RoaringBitmap())
+                .add(ProductFilterIndex.bitmapId(product.getId()));
+    }
+
+    private void remove(Product product) {
+        if (product.getUnitType() == null || product.getUnitPrice() == null) {
+            return;
+        }
+        NavigableSet<Entry> products = productsByUnit.get(product.getUnitType());
+        if (products != null) {
+            products.remove(new Entry(product.getUnitPrice(), product.getId()));
+            productIdsByUnit.get(product.getUnitType()).remove(ProductFilterIndex.bitmapId(product.getId()));
+            if (products.isEmpty()) {
+                productsByUnit.remove(product.getUnitType());
+                productIdsByUnit.remove(product.getUnitType());
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final double unitPrice;
+        private final long productId;
+
+        private Entry(double unitPrice, long productId) {
+            this.unitPrice = unitPrice;
+            this.productId = productId;
+        }
+    }
+}
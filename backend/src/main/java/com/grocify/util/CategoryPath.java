@@ -0,0 +1,61 @@
+package com.grocify.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Categories are materialized paths: "Dairy & Eggs/Cheese" is the Cheese node under Dairy & Eggs
+public final class CategoryPath {
+
+    public static final char SEPARATOR = '/';
+
+    private CategoryPath() {}
+
+    // Accepts "Dairy & Eggs > Cheese" as well; trims each level and drops empty ones
+    public static String normalize(String category) {
+        if (category == null) {
+            return null;
+        }
+        StringBuilder path = new StringBuilder(category.length());
+        for (String level : category.split("[/>]")) {
+            String name = level.trim();
+            if (!name.isEmpty()) {
+                if (path.length() > 0) {
+                    path.append(SEPARATOR);
+                }
+                path.append(name);
+            }
+        }
+        return path.length() > 0 ? path.toString() : null;
+    }
+
+    // "A/B/C" gives "A", "A/B" and "A/B/C"
+    public static List<String> lineage(String path) {
+        if (path.indexOf(SEPARATOR) < 0) {
+            return List.of(path);
+        }
+        List<String> paths = new ArrayList<>();
+        for (int i = path.indexOf(SEPARATOR); i >= 0; i = path.indexOf(SEPARATOR, i + 1)) {
+            paths.add(path.substring(0, i));
+        }
+        paths.add(path);
+        return paths;
+    }
+
+    public static String parent(String path) {
+        int separator = path.lastIndexOf(SEPARATOR);
+        return separator < 0 ? null : path.substring(0, separator);
+    }
+
+    public static String name(String path) {
+        return path.substring(path.lastIndexOf(SEPARATOR) + 1);
+    }
+
+    // Every descendant of path sorts in [descendantsFrom, descendantsTo)
+    public static String descendantsFrom(String path) {
+        return path + SEPARATOR;
+    }
+
+    public static String descendantsTo(String path) {
+        return path + (char) (SEPARATOR + 1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.grocify.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class CsvLine {
+
+    private CsvLine() {}
+
+    // Splits one RFC 4180 record; quoted fields may contain commas and doubled quotes but not line breaks
+    public static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Joins fields into one record, quoting where needed; line breaks become spaces so parse() can read it back
+    public static String format(Object... fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            if (fields[i] == null) {
+                continue;
+            }
+            String value = fields[i].toString().replace("\r\n", " ").replace('\n', ' ').replace('\r', ' ');
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+}
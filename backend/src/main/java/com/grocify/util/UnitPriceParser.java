@@ -0,0 +1,81 @@
+package com.grocify.util;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Reads the pack size out of a product name, e.g. "Potatoes (2kg)" or "Cola (6 x 330ml)"
+public final class UnitPriceParser {
+
+    public static final String UNIT_KG = "kg";
+    public static final String UNIT_LITRE = "l";
+    public static final String UNIT_PIECE = "piece";
+
+    public static final List<String> UNITS = List.of(UNIT_KG, UNIT_LITRE, UNIT_PIECE);
+
+    private static final Pattern PACK_SIZE = Pattern.compile(
+            "(?:(\\d+)\\s*[x×]\\s*)?(\\d+(?:[.,]\\d+)?)\\s*(kg|g|ml|cl|l|pieces|piece|pcs|pc|rolls|roll|bags|bag)\\b");
+
+    private UnitPriceParser() {}
+
+    // The pack size in kg, litres or pieces; null when the name carries none
+    public static PackSize parse(String name) {
+        if (name == null) {
+            return null;
+        }
+        Matcher matcher = PACK_SIZE.matcher(name.toLowerCase(Locale.ROOT));
+        PackSize pack = null;
+        // The last match wins: the pack size trails the name
+        while (matcher.find()) {
+            double quantity = Double.parseDouble(matcher.group(2).replace(',', '.'));
+            if (matcher.group(1) != null) {
+                quantity *= Integer.parseInt(matcher.group(1));
+            }
+            switch (matcher.group(3)) {
+                case "kg":
+                    pack = new PackSize(UNIT_KG, quantity);
+                    break;
+                case "g":
+                    pack = new PackSize(UNIT_KG, quantity / 1000);
+                    break;
+                case "l":
+                    pack = new PackSize(UNIT_LITRE, quantity);
+                    break;
+                case "cl":
+                    pack = new PackSize(UNIT_LITRE, quantity / 100);
+                    break;
+                case "ml":
+                    pack = new PackSize(UNIT_LITRE, quantity / 1000);
+                    break;
+                default:
+                    pack = new PackSize(UNIT_PIECE, quantity);
+            }
+        }
+        return pack != null && pack.getQuantity() > 0 ? pack : null;
+    }
+
+    // Price per kg, litre or piece, rounded to the cent
+    public static double unitPrice(double price, PackSize pack) {
+        return Math.round(price / pack.getQuantity() * 100) / 100.0;
+    }
+
+    public static final class PackSize {
+
+        private final String unit;
+        private final double quantity;
+
+        public PackSize(String unit, double quantity) {
+            this.unit = unit;
+            this.quantity = quantity;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public double getQuantity() {
+            return quantity;
+        }
+    }
+}
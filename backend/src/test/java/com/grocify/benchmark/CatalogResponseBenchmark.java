@@ -0,0 +1,95 @@
+package com.grocify.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocify.entity.Product;
+import com.grocify.service.CatalogJsonCache;
+import com.grocify.service.CatalogSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The body of GET /api/products as the controller builds it with catalog.preserialized-responses
+ * on, from CatalogJsonCache, against the ResponseEntity&lt;List&lt;Product&gt;&gt; path it takes with the
+ * setting off, where the message converter serializes the list on every request. The gzip
+ * variant of that path is what server.compression would add. Writing to the socket is left
+ * out of both.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CatalogResponseBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class CatalogResponseBenchmark {
+
+    @Param({"1000", "20000"})
+    int products;
+
+    private ObjectMapper objectMapper;
+
+    private CatalogJsonCache cache;
+
+    private CatalogSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void load() {
+        // What Spring Boot's JacksonAutoConfiguration builds with this application's settings
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cache = new CatalogJsonCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+        snapshot = CatalogSnapshot.of(1, SyntheticCatalog.generate(products, 42));
+    }
+
+    @Benchmark
+    public byte[] preserializedIdentity() {
+        return cache.getAllProducts(snapshot).getIdentity();
+    }
+
+    @Benchmark
+    public byte[] preserializedGzip() {
+        return cache.getAllProducts(snapshot).getGzip();
+    }
+
+    @Benchmark
+    public byte[] responseEntityIdentity() throws IOException {
+        return serialize(snapshot.getAvailableProducts());
+    }
+
+    @Benchmark
+    public byte[] responseEntityGzip() throws IOException {
+        byte[] identity = serialize(snapshot.getAvailableProducts());
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(identity);
+        }
+        return compressed.toByteArray();
+    }
+
+    // As MappingJackson2HttpMessageConverter writes it, into a growing buffer instead of the response
+    private byte[] serialize(List<Product> body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Product.class))
+                .writeValue(out, body);
+        return out.toByteArray();
+    }
+}
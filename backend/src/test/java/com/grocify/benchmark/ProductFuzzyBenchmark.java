@@ -0,0 +1,96 @@
+package com.grocify.benchmark;
+
+import com.grocify.entity.Product;
+import com.grocify.service.CatalogSnapshot;
+import com.grocify.service.ProductFuzzyIndex;
+import com.grocify.service.ProductPopularity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductFuzzyIndex.search for misspelled queries, as ProductService runs it when a search
+ * has no exact hits, and the rename that updates the index after a product write. The
+ * popularity scores are empty, so ranking falls through to the id.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ProductFuzzyBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class ProductFuzzyBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        @Param({"100000", "1000000"})
+        int products;
+
+        ProductFuzzyIndex index;
+
+        CatalogSnapshot snapshot;
+
+        Product original;
+
+        Product renamed;
+
+        @Setup(Level.Trial)
+        public void load() {
+            ProductPopularity popularity = new ProductPopularity();
+            ReflectionTestUtils.setField(popularity, "loaded", true);
+            index = new ProductFuzzyIndex();
+            ReflectionTestUtils.setField(index, "popularity", popularity);
+            List<Product> catalog = SyntheticCatalog.generate(products, 42);
+            snapshot = CatalogSnapshot.of(1, catalog);
+            index.onCatalogLoaded(snapshot);
+            original = catalog.get(catalog.size() / 2);
+            renamed = new Product(original.getName().replaceFirst("^\\S+", "Zorvelt"), original.getPrice(), null);
+            renamed.setId(original.getId());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Query {
+
+        // A common word, a word in two categories, a rare brand, two words, and a word that is not there
+        @Param({"tomatos", "chese", "rare-brand", "brocoli fresh", "quinao"})
+        String text;
+
+        @Setup(Level.Trial)
+        public void resolve() {
+            if (text.equals("rare-brand")) {
+                // A brand from the long tail with its first letter missing
+                text = SyntheticCatalog.brand(20_000).toLowerCase().substring(1);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Long> search(Catalog catalog, Query query) {
+        return catalog.index.search(query.text, PAGE_SIZE);
+    }
+
+    // Renames one product's brand to a new word and back, so each call kills and revives a word
+    @Benchmark
+    public void renameProduct(Catalog catalog) {
+        catalog.index.onProductSaved(catalog.original, catalog.renamed, catalog.snapshot);
+        catalog.index.onProductSaved(catalog.renamed, catalog.original, catalog.snapshot);
+    }
+}
@@ -0,0 +1,148 @@
+package com.grocify.benchmark;
+
+import com.grocify.entity.Product;
+import com.grocify.service.CatalogSnapshot;
+import com.grocify.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first page of a search through ProductSearchIndex against the query Spring Data
+ * derives for ProductRepository.findByNameContainingIgnoreCase, which scans every name.
+ * Each operation runs all of QUERIES once. The SQL runs on an in-memory H2 database with
+ * the products table's schema and selects every column of every match, but does not
+ * build entities, so it is a lower bound of the repository call; on MySQL the scan also
+ * pays for the connection round trip and the collation.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ProductSearchBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class ProductSearchBenchmark {
+
+    // A common word, a prefix, a word across categories, a rare brand and a word that is not there
+    static final String[] QUERIES = {"tomatoes", "chees", "milk", SyntheticCatalog.brand(20_000).toLowerCase(), "quinoa"};
+
+    // Hibernate's statement for findByNameContainingIgnoreCase
+    private static final String CONTAINING_IGNORE_CASE =
+            "select p1_0.id, p1_0.available, p1_0.category, p1_0.description, p1_0.image_url, p1_0.name,"
+                    + " p1_0.price, p1_0.unit_price, p1_0.unit_type from products p1_0"
+                    + " where upper(p1_0.name) like upper(?) escape '\\'";
+
+    private static final int PAGE_SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+
+        @Param({"100000", "1000000"})
+        int products;
+
+        CatalogSnapshot snapshot;
+
+        ProductSearchIndex index;
+
+        @Setup(Level.Trial)
+        public void load() {
+            snapshot = CatalogSnapshot.of(1, SyntheticCatalog.generate(products, 42));
+            index = new ProductSearchIndex();
+            index.onCatalogLoaded(snapshot);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"100000", "1000000"})
+        int products;
+
+        Connection connection;
+
+        PreparedStatement containing;
+
+        @Setup(Level.Trial)
+        public void load() throws SQLException {
+            connection = DriverManager.getConnection("jdbc:h2:mem:products;MODE=MySQL");
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table products (id bigint primary key, available boolean not null,"
+                        + " category varchar(255), description varchar(255), image_url varchar(500),"
+                        + " name varchar(100), price double, unit_price double, unit_type varchar(255))");
+                statement.execute("create index idx_products_category on products (category)");
+            }
+            List<Product> catalog = SyntheticCatalog.generate(products, 42);
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into products values (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (Product product : catalog) {
+                    insert.setLong(1, product.getId());
+                    insert.setBoolean(2, product.isAvailable());
+                    insert.setString(3, product.getCategory());
+                    insert.setString(4, product.getDescription());
+                    insert.setNull(5, Types.VARCHAR);
+                    insert.setString(6, product.getName());
+                    insert.setDouble(7, product.getPrice());
+                    insert.setObject(8, product.getUnitPrice(), Types.DOUBLE);
+                    insert.setString(9, product.getUnitType());
+                    insert.addBatch();
+                    if (product.getId() % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            containing = connection.prepareStatement(CONTAINING_IGNORE_CASE);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public void searchIndex(Catalog catalog, Blackhole blackhole) {
+        for (String query : QUERIES) {
+            blackhole.consume(catalog.index.search(query, null, PAGE_SIZE + 1, catalog.snapshot));
+        }
+    }
+
+    @Benchmark
+    public void nameContainingIgnoreCase(Database database, Blackhole blackhole) throws SQLException {
+        for (String query : QUERIES) {
+            database.containing.setString(1, "%" + query + "%");
+            try (ResultSet rows = database.containing.executeQuery()) {
+                while (rows.next()) {
+                    blackhole.consume(rows.getLong(1));
+                    blackhole.consume(rows.getString(6));
+                    blackhole.consume(rows.getString(4));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.grocify.benchmark;
+
+import com.grocify.entity.Product;
+import com.grocify.service.CatalogSnapshot;
+import com.grocify.service.ProductPopularity;
+import com.grocify.service.ProductSuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductSuggestIndex.suggest for prefixes of three letters and more, which are not
+ * cached. A tenth of the products have been ordered, with a long tail of small counts.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ProductSuggestBenchmark</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ProductSuggestBenchmark {
+
+    private static final int LIMIT = 10;
+
+    @Param({"100000", "1000000"})
+    int products;
+
+    // A word in a tenth of the names, a category, a word in one category, a rare brand, and a full name prefix
+    @Param({"org", "fro", "tomat", "rare-brand", "rare-brand organic"})
+    String prefix;
+
+    private ProductSuggestIndex index;
+
+    @Setup(Level.Trial)
+    public void load() {
+        ProductPopularity popularity = new ProductPopularity();
+        ReflectionTestUtils.setField(popularity, "loaded", true);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < products / 10; i++) {
+            popularity.recordOrdered(1 + random.nextInt(products), 1 + (int) (100 * Math.pow(random.nextDouble(), 4)));
+        }
+        index = new ProductSuggestIndex();
+        ReflectionTestUtils.setField(index, "popularity", popularity);
+        List<Product> catalog = SyntheticCatalog.generate(products, 42);
+        index.onCatalogLoaded(CatalogSnapshot.of(1, catalog));
+        prefix = prefix.replace("rare-brand", SyntheticCatalog.brand(20_000).toLowerCase());
+    }
+
+    @Benchmark
+    public List<Long> suggest() {
+        return index.suggest(prefix, LIMIT);
+    }
+}
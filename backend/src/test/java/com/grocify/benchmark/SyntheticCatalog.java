@@ -0,0 +1,75 @@
+package com.grocify.benchmark;
+
+import com.grocify.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * In-memory products shaped like the loadtest profile's dataset: the same grocery
+ * vocabulary, plus a brand on every name drawn from a long tail of generated words, so a
+ * large catalog has a realistic number of distinct words and not only a few dozen.
+ * A seed always yields the same products.
+ */
+final class SyntheticCatalog {
+
+    static final String[] CATEGORIES = {
+            "Fruits", "Vegetables", "Dairy & Eggs/Milk", "Dairy & Eggs/Cheese", "Bakery", "Beverages",
+            "Snacks & Nuts", "Pantry & Staples", "Frozen Foods", "Household"};
+
+    static final String[][] NOUNS = {
+            {"Bananas", "Apples", "Oranges", "Mangoes", "Grapes", "Pomegranates", "Pears", "Kiwis"},
+            {"Tomatoes", "Potatoes", "Onions", "Carrots", "Spinach", "Broccoli", "Cauliflower", "Capsicum"},
+            {"Milk", "Buttermilk", "Yogurt", "Curd", "Cream", "Lassi"},
+            {"Cheese Slices", "Cheddar", "Mozzarella", "Paneer", "Cheese Spread"},
+            {"Bread", "Buns", "Croissants", "Muffins", "Cookies", "Rusk", "Bagels", "Pav"},
+            {"Orange Juice", "Green Tea", "Coffee Beans", "Cola", "Coconut Water", "Lemonade", "Matcha Powder"},
+            {"Almonds", "Cashews", "Potato Chips", "Peanuts", "Trail Mix", "Popcorn", "Walnuts"},
+            {"Basmati Rice", "Wheat Flour", "Toor Dal", "Sugar", "Salt", "Sunflower Oil", "Chickpeas"},
+            {"Frozen Peas", "Ice Cream", "Frozen Pizza", "French Fries", "Frozen Corn", "Veg Nuggets"},
+            {"Dishwash Liquid", "Laundry Detergent", "Paper Towels", "Toilet Paper", "Floor Cleaner"}};
+
+    static final String[] PACKS = {"100g", "250g", "500g", "1kg", "200ml", "500ml", "1L", "6 pcs", "12 pcs"};
+
+    static final String[] ADJECTIVES = {
+            "Organic", "Fresh", "Premium", "Farm", "Classic", "Value", "Select", "Daily", "Natural", "Family"};
+
+    private static final String[] SYLLABLES = {
+            "ka", "ri", "mo", "ta", "ne", "lu", "sa", "vi", "do", "pe", "ro", "mi", "zu", "ga", "fe", "ho",
+            "ba", "li", "nu", "te", "ko", "ra", "si", "me", "da", "po", "ve", "ju", "la", "ni", "to", "be"};
+
+    // Three syllables give 32^3 = 32768 brand words
+    static final int BRANDS = SYLLABLES.length * SYLLABLES.length * SYLLABLES.length;
+
+    private SyntheticCatalog() {
+    }
+
+    static List<Product> generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int category = random.nextInt(CATEGORIES.length);
+            String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            String noun = NOUNS[category][random.nextInt(NOUNS[category].length)];
+            // Skewed towards the first brands, so a few are common and most are rare
+            String brand = brand((int) (BRANDS * Math.pow(random.nextDouble(), 3)));
+            String pack = PACKS[random.nextInt(PACKS.length)];
+            Product product = new Product(brand + " " + adjective + " " + noun + " (" + pack + ")",
+                    (double) (10 + random.nextInt(990)), null);
+            product.setId(i + 1L);
+            product.setDescription(adjective + " " + noun.toLowerCase() + " from our " + CATEGORIES[category] + " range");
+            product.setCategory(CATEGORIES[category]);
+            product.setAvailable(random.nextInt(100) < 95);
+            product.updateUnitPrice();
+            products.add(product);
+        }
+        return products;
+    }
+
+    static String brand(int index) {
+        int size = SYLLABLES.length;
+        String brand = SYLLABLES[index % size] + SYLLABLES[index / size % size] + SYLLABLES[index / size / size % size];
+        return Character.toUpperCase(brand.charAt(0)) + brand.substring(1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.grocify.config;
+
+import com.grocify.service.IdAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLException;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdGeneratorMigrationTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final IdAllocator idAllocator = mock(IdAllocator.class);
+
+    @Test
+    void movesEachGeneratorPastTheTablesHighestIdAndSkipsTablesNotCreatedYet() {
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM products", Long.class)).thenReturn(120L);
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class)).thenReturn(0L);
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM order_items", Long.class)).thenReturn(7L);
+        when(jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM feedback", Long.class))
+                .thenThrow(new BadSqlGrammarException("max id", "SELECT", new SQLException("Table \"feedback\" not found")));
+
+        IdGeneratorMigration migration = new IdGeneratorMigration();
+        ReflectionTestUtils.setField(migration, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(migration, "idAllocator", idAllocator);
+        migration.migrate();
+
+        verify(idAllocator).ensureAbove("products", 120L);
+        verify(idAllocator).ensureAbove("orders", 0L);
+        verify(idAllocator).ensureAbove("order_items", 7L);
+        verify(idAllocator, never()).ensureAbove(eq("feedback"), anyLong());
+    }
+}
@@ -0,0 +1,143 @@
+package com.grocify.config;
+
+import com.grocify.service.IdAllocator;
+import com.grocify.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoadTestDataGeneratorTest {
+
+    // More than one chunk of each table, so that chunks land on different writers
+    private static final int PRODUCTS = 25_000;
+
+    private static final int USERS = 200;
+
+    private static final int ORDERS = 12_000;
+
+    private static final int FEEDBACK = 11_000;
+
+    @Test
+    void sameSeedGivesTheSameRowsWhateverTheNumberOfWriters() throws Exception {
+        Map<String, List<List<Object>>> oneWriter = generate(42, 1, 500);
+        Map<String, List<List<Object>>> fourWriters = generate(42, 4, 128);
+
+        assertThat(fourWriters.keySet()).containsExactlyInAnyOrder("products", "users", "orders", "order_items", "feedback");
+        for (String table : oneWriter.keySet()) {
+            assertThat(fourWriters.get(table)).as(table).isEqualTo(oneWriter.get(table));
+        }
+        assertThat(generate(7, 4, 500).get("products")).isNotEqualTo(oneWriter.get("products"));
+    }
+
+    @Test
+    void generatesTheConfiguredRowsWithZipfCategories() throws Exception {
+        Map<String, List<List<Object>>> rows = generate(42, 4, 500);
+
+        assertThat(rows.get("products")).hasSize(PRODUCTS);
+        assertThat(rows.get("users")).hasSize(USERS);
+        assertThat(rows.get("orders")).hasSize(ORDERS);
+        assertThat(rows.get("feedback")).hasSize(FEEDBACK);
+        assertThat(rows.get("products")).extracting(row -> row.get(0))
+                .containsExactlyElementsOf(LongStream.range(1000, 1000 + PRODUCTS).boxed().toList());
+
+        // Every category is used, the first one by the Zipf head with its expected share
+        Map<String, Integer> categories = new TreeMap<>();
+        int available = 0;
+        for (List<Object> product : rows.get("products")) {
+            categories.merge((String) product.get(5), 1, Integer::sum);
+            available += (Boolean) product.get(6) ? 1 : 0;
+        }
+        assertThat(categories).hasSize(11);
+        double headShare = 1 / LongStream.rangeClosed(1, 11).mapToDouble(rank -> Math.pow(rank, -0.6)).sum();
+        assertThat(categories.get("Fruits") / (double) PRODUCTS).isCloseTo(headShare, within(0.01));
+        assertThat(Collections.max(categories.values())).isEqualTo(categories.get("Fruits"));
+        assertThat(available / (double) PRODUCTS).isCloseTo(0.95, within(0.01));
+
+        // Items point at generated products and add up to their order's total
+        Map<Object, Double> itemTotals = new HashMap<>();
+        for (List<Object> item : rows.get("order_items")) {
+            assertThat((Long) item.get(2)).isBetween(1000L, 1000L + PRODUCTS - 1);
+            itemTotals.merge(item.get(1), (Integer) item.get(3) * (Double) item.get(4), Double::sum);
+        }
+        assertThat(itemTotals).hasSize(ORDERS);
+        for (List<Object> order : rows.get("orders")) {
+            assertThat((Double) order.get(2)).isCloseTo(itemTotals.get(order.get(0)), within(0.01));
+        }
+    }
+
+    // Runs the generator against a JdbcTemplate that keeps the inserted rows, by table and ordered by id
+    private static Map<String, List<List<Object>>> generate(long seed, int threads, int rowsPerStatement) throws Exception {
+        Map<String, List<List<Object>>> tables = new HashMap<>();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public int update(String sql, Object... args) {
+                String table = sql.substring("INSERT INTO ".length(), sql.indexOf(" ("));
+                int columnCount = sql.substring(sql.indexOf('(') + 1, sql.indexOf(')')).split(",").length;
+                synchronized (tables) {
+                    List<List<Object>> rows = tables.computeIfAbsent(table, name -> new ArrayList<>());
+                    for (int from = 0; from < args.length; from += columnCount) {
+                        rows.add(Arrays.asList(Arrays.copyOfRange(args, from, from + columnCount)));
+                    }
+                }
+                return args.length / columnCount;
+            }
+
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                return requiredType.cast(0);
+            }
+
+            @Override
+            public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+                return LongStream.rangeClosed(1, USERS).mapToObj(elementType::cast).toList();
+            }
+        };
+        IdAllocator idAllocator = mock(IdAllocator.class);
+        when(idAllocator.reserve(anyString(), anyInt())).thenReturn(1000L);
+
+        LoadTestDataGenerator generator = new LoadTestDataGenerator();
+        ReflectionTestUtils.setField(generator, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(generator, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(generator, "idAllocator", idAllocator);
+        ReflectionTestUtils.setField(generator, "productService", mock(ProductService.class));
+        ReflectionTestUtils.setField(generator, "passwordEncoder", mock(PasswordEncoder.class));
+        ReflectionTestUtils.setField(generator, "seed", seed);
+        ReflectionTestUtils.setField(generator, "productCount", PRODUCTS);
+        ReflectionTestUtils.setField(generator, "userCount", USERS);
+        ReflectionTestUtils.setField(generator, "orderCount", ORDERS);
+        ReflectionTestUtils.setField(generator, "feedbackCount", FEEDBACK);
+        ReflectionTestUtils.setField(generator, "threads", threads);
+        ReflectionTestUtils.setField(generator, "rowsPerStatement", rowsPerStatement);
+        ReflectionTestUtils.setField(generator, "historyEnd", "2025-01-01");
+        generator.run();
+
+        // Users have no id column; they are written in order by one thread
+        tables.forEach((table, rows) -> {
+            if (!table.equals("users")) {
+                rows.sort(Comparator.comparing(row -> (Long) row.get(0)));
+            }
+        });
+        return tables;
+    }
+}
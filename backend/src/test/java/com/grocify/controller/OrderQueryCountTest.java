@@ -0,0 +1,215 @@
+package com.grocify.controller;
+
+import com.grocify.entity.Order;
+import com.grocify.entity.OrderItem;
+import com.grocify.entity.Product;
+import com.grocify.entity.User;
+import com.grocify.repository.OrderRepository;
+import com.grocify.repository.ProductRepository;
+import com.grocify.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statements run by the order reads, counted with Hibernate's statistics. Every order has
+ * several items, so a lazy association loaded per order or per item would show up as
+ * extra statements. The counts include the controller's lookup of the signed-in user.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderQueryCountTest {
+
+    private static final int ORDERS = 5;
+
+    private static final int ITEMS_PER_ORDER = 3;
+
+    private static final int CART_LINES = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User customer;
+
+    private List<Order> orders;
+
+    private List<Long> cartProductIds;
+
+    private final List<Long> placedOrderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        customer = userRepository.findByUsername("user").orElseThrow();
+        List<Product> catalog = productRepository.findAll();
+        List<Product> products = catalog.subList(0, ITEMS_PER_ORDER);
+        cartProductIds = catalog.subList(0, CART_LINES).stream().map(Product::getId).toList();
+        orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(customer, new ArrayList<>(), 0.0);
+            order.setStatus("QUERY_COUNT_" + i % 2);
+            order.setOrderDate(LocalDateTime.now().minusMinutes(i));
+            for (Product product : products) {
+                order.getOrderItems().add(new OrderItem(order, product, 1, product.getPrice()));
+                order.setTotalAmount(order.getTotalAmount() + product.getPrice());
+            }
+            orders.add(orderRepository.save(order));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll(orders);
+        orderRepository.deleteAllById(placedOrderIds);
+    }
+
+    @Test
+    void myOrdersRunsAFixedNumberOfStatements() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/orders/my-orders").with(user("user")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orderItems[0].product.name").exists());
+
+        // The user, then the orders with their items and products
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void orderByIdRunsAFixedNumberOfStatements() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(get("/api/orders/{id}", orders.get(0).getId()).with(user("user")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems.length()").value(ITEMS_PER_ORDER));
+
+        // The user, then the order with its items and products
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void statusUpdateRunsAFixedNumberOfStatements() throws Exception {
+        Statistics statistics = statistics();
+
+        mockMvc.perform(put("/api/orders/{id}/status", orders.get(0).getId()).with(user("admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"SHIPPED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems.length()").value(ITEMS_PER_ORDER));
+
+        // The order with its items and products, then the update
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void placingACartOfUntrackedProductsRunsAFixedNumberOfStatements() throws Exception {
+        entityManagerFactory.getCache().evict(Product.class);
+        Statistics statistics = statistics();
+
+        placeCart();
+
+        // The user, the products, their inventory rows, then the order and its items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+    }
+
+    @Test
+    void placingACartReadsCachedProductsFromTheSecondLevelCache() throws Exception {
+        placeCart();
+        Statistics statistics = statistics();
+
+        placeCart();
+
+        // The same products again: the user, their inventory rows, then the order and its items
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(CART_LINES);
+    }
+
+    @Test
+    void findByStatusLoadsItemsAndProductsInOneStatement() {
+        Statistics statistics = statistics();
+
+        List<Order> found = orderRepository.findByStatus("QUERY_COUNT_0");
+
+        assertThat(found).hasSize((ORDERS + 1) / 2);
+        assertItemsLoaded(found);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByUserAndStatusLoadsItemsAndProductsInOneStatement() {
+        Statistics statistics = statistics();
+
+        List<Order> found = orderRepository.findByUserAndStatus(customer, "QUERY_COUNT_1");
+
+        assertThat(found).hasSize(ORDERS / 2);
+        assertItemsLoaded(found);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // The seed products have no inventory rows, so none of them is stock-tracked
+    private void placeCart() throws Exception {
+        StringBuilder cart = new StringBuilder();
+        for (Long productId : cartProductIds) {
+            cart.append(cart.length() == 0 ? "" : ",")
+                    .append("{\"productId\":").append(productId).append(",\"quantity\":2}");
+        }
+        String body = mockMvc.perform(post("/api/orders/place").with(user("user"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cartItems\":[" + cart + "],\"shippingAddress\":\"1 Test Street\","
+                                + "\"paymentMethod\":\"CASH_ON_DELIVERY\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderItems.length()").value(CART_LINES))
+                .andReturn().getResponse().getContentAsString();
+        placedOrderIds.add(JsonPath.<Number>read(body, "$.id").longValue());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static void assertItemsLoaded(List<Order> found) {
+        for (Order order : found) {
+            assertThat(Hibernate.isInitialized(order.getUser())).isTrue();
+            assertThat(Hibernate.isInitialized(order.getOrderItems())).isTrue();
+            assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER)
+                    .allSatisfy(item -> assertThat(Hibernate.isInitialized(item.getProduct())).isTrue());
+        }
+    }
+}
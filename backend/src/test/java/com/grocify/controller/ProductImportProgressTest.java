@@ -0,0 +1,105 @@
+package com.grocify.controller;
+
+import com.grocify.entity.Product;
+import com.grocify.repository.ProductRepository;
+import com.grocify.service.ProductImportService;
+import com.grocify.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImportProgressTest {
+
+    private static final String NAME_PREFIX = "Import progress ";
+
+    private static final String CSV = "name,price,category\n"
+            + NAME_PREFIX + "1,10,Fruits\n"
+            + NAME_PREFIX + "2,20,Fruits\n"
+            + NAME_PREFIX + "3,not a price,Fruits\n"
+            + NAME_PREFIX + "4,40,Fruits\n"
+            + NAME_PREFIX + "5,50,Fruits\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    private Object batchSize;
+
+    @BeforeEach
+    void setUp() {
+        batchSize = ReflectionTestUtils.getField(productImportService, "batchSize");
+        ReflectionTestUtils.setField(productImportService, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(productImportService, "batchSize", batchSize);
+        productRepository.deleteAll(productRepository.findAll().stream()
+                .filter(product -> product.getName().startsWith(NAME_PREFIX))
+                .toList());
+        productService.reloadCatalog();
+    }
+
+    @Test
+    void ndjsonClientsGetALineAfterEveryBatchThenTheReport() throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/admin/products/import")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType("text/csv")
+                        .accept("application/x-ndjson")
+                        .content(CSV))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.split("\n")).containsExactly(
+                "{\"batches\":1,\"rowsRead\":2,\"imported\":2,\"rejected\":0}",
+                "{\"batches\":2,\"rowsRead\":5,\"imported\":4,\"rejected\":1}",
+                "{\"rowsRead\":5,\"imported\":4,\"rejected\":1,\"batches\":2,"
+                        + "\"errors\":[{\"line\":4,\"message\":\"Invalid price 'not a price'\"}]}");
+        List<Product> imported = productRepository.findAll().stream()
+                .filter(product -> product.getName().startsWith(NAME_PREFIX))
+                .toList();
+        assertThat(imported).hasSize(4);
+    }
+
+    @Test
+    void otherClientsStillGetJustTheReport() throws Exception {
+        mockMvc.perform(post("/api/admin/products/import")
+                        .with(user("admin").roles("ADMIN"))
+                        .contentType("text/csv")
+                        .content(CSV))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(4))
+                .andExpect(jsonPath("$.batches").value(2));
+    }
+}
@@ -0,0 +1,61 @@
+package com.grocify.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductListingEncodingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void gzipAndIdentityBodiesHaveDifferentETags() throws Exception {
+        MvcResult identity = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        MvcResult gzip = mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        String identityETag = identity.getResponse().getHeader(HttpHeaders.ETAG);
+        String gzipETag = gzip.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(gzipETag).isNotEqualTo(identityETag);
+
+        // A cache that stored the gzip body must not get a 304 for it on an identity request
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, gzipETag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, gzipETag)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void gzipWithZeroQualityIsRefused() throws Exception {
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "*;q=0.5, gzip;q=0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "identity, gzip;q=0.5"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.1"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+}
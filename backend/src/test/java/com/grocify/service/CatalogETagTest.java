@@ -0,0 +1,64 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import com.grocify.repository.CatalogVersionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogETagTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void eTagIsTheSharedVersionOfTheWrite() {
+        Product saved = productService.saveProduct(new Product("ETag Apples 1kg", 120.0, null));
+        try {
+            CatalogSnapshot catalog = productService.getCatalog();
+            assertThat(catalog.getVersion()).isEqualTo(catalogVersionService.currentVersion());
+            assertThat(catalog.getETag()).isEqualTo("\"" + catalogVersionService.currentVersion() + "\"");
+            assertThat(catalog.getProductETag(saved.getId()))
+                    .isEqualTo("\"" + catalogVersionService.currentVersion() + "-" + saved.getId() + "\"");
+
+            // A node that loads the catalog now, or this one after a restart, hands out the same ETags
+            assertThat(productService.refreshCatalog().getETag()).isEqualTo(catalog.getETag());
+        } finally {
+            productService.deleteProduct(saved.getId());
+        }
+    }
+
+    @Test
+    void writeAfterAnotherNodesWriteReloadsTheCatalog() {
+        productService.getCatalog();
+        // Another node writes a product
+        transactionTemplate.executeWithoutResult(status -> catalogVersionRepository.increment(1L));
+
+        Product saved = productService.saveProduct(new Product("ETag Pears 1kg", 140.0, null));
+        try {
+            CatalogSnapshot catalog = productService.getCatalog();
+            assertThat(catalog.getVersion()).isEqualTo(catalogVersionService.currentVersion());
+            assertThat(catalog.getProduct(saved.getId())).isPresent();
+            assertThat(catalogVersionService.pollForRemoteChanges()).isFalse();
+        } finally {
+            productService.deleteProduct(saved.getId());
+        }
+    }
+}
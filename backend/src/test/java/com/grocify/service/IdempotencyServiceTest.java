@@ -0,0 +1,101 @@
+package com.grocify.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.grocify.entity.IdempotencyKey;
+import com.grocify.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "7:order-1";
+
+    private final IdempotencyKeyRepository repository = mock(IdempotencyKeyRepository.class);
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(100);
+        ReflectionTestUtils.setField(service, "idempotencyKeyRepository", repository);
+        ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "ttlHours", 24L);
+        ReflectionTestUtils.setField(service, "inProgressTimeoutSeconds", 300L);
+    }
+
+    @Test
+    void responseIsReturnedWhenItCannotBeStored() {
+        when(repository.complete(eq(SCOPE), anyInt(), anyString())).thenThrow(new QueryTimeoutException("timed out"));
+
+        ResponseEntity<?> response = service.execute(7L, "order-1", Map.of("cart", 1), this::placeOrder);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(runs).hasValue(1);
+        verify(repository, never()).deleteById(any());
+    }
+
+    @Test
+    void abandonedClaimIsTakenOver() {
+        when(repository.claim(eq(SCOPE), anyString(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(1);
+        when(repository.findById(SCOPE)).thenReturn(Optional.of(claim(LocalDateTime.now().minusMinutes(10))));
+        when(repository.deleteInProgressClaim(eq(SCOPE), any())).thenReturn(1);
+
+        ResponseEntity<?> response = service.execute(7L, "order-1", Map.of("cart", 1), this::placeOrder);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void recentClaimStillConflicts() {
+        when(repository.claim(eq(SCOPE), anyString(), any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.findById(SCOPE)).thenReturn(Optional.of(claim(LocalDateTime.now().minusSeconds(5))));
+
+        assertThatThrownBy(() -> service.execute(7L, "order-1", Map.of("cart", 1), this::placeOrder))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(runs).hasValue(0);
+        verify(repository, never()).deleteInProgressClaim(any(), any());
+    }
+
+    private ResponseEntity<?> placeOrder() {
+        runs.incrementAndGet();
+        return ResponseEntity.ok(Map.of("id", 1));
+    }
+
+    private IdempotencyKey claim(LocalDateTime createdAt) {
+        IdempotencyKey claim = new IdempotencyKey();
+        claim.setScope(SCOPE);
+        claim.setRequestHash((String) ReflectionTestUtils.invokeMethod(service, "hash", Map.of("cart", 1)));
+        claim.setStatus(IdempotencyKey.IN_PROGRESS);
+        claim.setCreatedAt(createdAt);
+        return claim;
+    }
+}
@@ -0,0 +1,156 @@
+package com.grocify.service;
+
+import com.grocify.entity.Inventory;
+import com.grocify.entity.Product;
+import com.grocify.entity.User;
+import com.grocify.repository.InventoryRepository;
+import com.grocify.repository.OrderRepository;
+import com.grocify.repository.ProductRepository;
+import com.grocify.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class InventoryServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryServiceTest.class);
+
+    private static final int HOT_PRODUCTS = 3;
+
+    private static final int STOCK_PER_PRODUCT = 400;
+
+    private static final int ORDERS = 3000;
+
+    private static final int CLIENTS = 64;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Far more clients than pooled connections, ordering a few products with far less stock than demand
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.MINUTES)
+    void parallelOrdersForHotProductsNeverOversell() throws Exception {
+        User customer = userRepository.findByUsername("user").orElseThrow();
+        List<Product> products = productRepository.findAll();
+        List<Product> hot = products.subList(products.size() - HOT_PRODUCTS, products.size());
+        for (Product product : hot) {
+            inventoryService.addStock(product.getId(), STOCK_PER_PRODUCT);
+        }
+        long ordersBefore = orderRepository.count();
+
+        AtomicIntegerArray sold = new AtomicIntegerArray(HOT_PRODUCTS);
+        AtomicIntegerArray refused = new AtomicIntegerArray(HOT_PRODUCTS);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> placed = new ArrayList<>(ORDERS);
+        long started = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            placed.add(clients.submit(() -> {
+                int product = ThreadLocalRandom.current().nextInt(HOT_PRODUCTS);
+                int quantity = 1 + ThreadLocalRandom.current().nextInt(3);
+                OrderService.CartItemRequest line = new OrderService.CartItemRequest();
+                line.setProductId(hot.get(product).getId());
+                line.setQuantity(quantity);
+                try {
+                    orderService.createOrder(customer, List.of(line), "1 Test Street", "CASH_ON_DELIVERY", null);
+                    sold.addAndGet(product, quantity);
+                } catch (CartValidationException e) {
+                    refused.incrementAndGet(product);
+                }
+            }));
+        }
+        for (Future<?> order : placed) {
+            order.get();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        clients.shutdown();
+        log.info("Placed {} orders for {} products from {} clients in {} ms ({} orders/s)",
+                ORDERS, HOT_PRODUCTS, CLIENTS, elapsedMillis, ORDERS * 1000L / Math.max(1, elapsedMillis));
+
+        int refusedOrders = 0;
+        for (int i = 0; i < HOT_PRODUCTS; i++) {
+            Map<String, Object> stock = inventoryService.getStock(hot.get(i).getId());
+            int left = (Integer) stock.get("unleased") + (Integer) stock.get("leasedHere");
+            assertThat(sold.get(i)).isLessThanOrEqualTo(STOCK_PER_PRODUCT);
+            assertThat(sold.get(i) + left).isEqualTo(STOCK_PER_PRODUCT);
+            // Demand is several times the stock, so what is left is less than any single order could use
+            assertThat(left).isLessThan(3);
+            refusedOrders += refused.get(i);
+        }
+        assertThat(orderRepository.count() - ordersBefore).isEqualTo(ORDERS - refusedOrders);
+    }
+
+    @Test
+    void productStockedElsewhereIsTrackedOnTheNextReservation() {
+        List<Product> products = productRepository.findAll();
+        Long productId = products.get(products.size() - HOT_PRODUCTS - 1).getId();
+        assertThat(inventoryService.reserve(productId, 5)).isNotNull();
+
+        // Another node creates the inventory row
+        inventoryRepository.save(new Inventory(productId, 3));
+
+        assertThat(inventoryService.reserve(productId, 5)).isNull();
+        assertThat(inventoryService.reserve(productId, 3)).isNotNull();
+        assertThat(inventoryService.reserve(productId, 1)).isNull();
+    }
+
+    @Test
+    void refusedCartHandsBackTheStockItReserved() {
+        User customer = userRepository.findByUsername("user").orElseThrow();
+        List<Product> products = productRepository.findAll();
+        Product plenty = products.get(products.size() - HOT_PRODUCTS - 2);
+        Product scarce = products.get(products.size() - HOT_PRODUCTS - 3);
+        inventoryService.addStock(plenty.getId(), 5);
+        inventoryService.addStock(scarce.getId(), 1);
+
+        assertThatThrownBy(() -> orderService.createOrder(customer, List.of(line(plenty, 3), line(scarce, 2)),
+                "1 Test Street", "CASH_ON_DELIVERY", null))
+                .isInstanceOf(CartValidationException.class);
+
+        // The units reserved for the first line are back, so all five can still be sold
+        orderService.createOrder(customer, List.of(line(plenty, 5)), "1 Test Street", "CASH_ON_DELIVERY", null);
+        assertThat(inventoryService.reserve(plenty.getId(), 1)).isNull();
+    }
+
+    private static OrderService.CartItemRequest line(Product product, int quantity) {
+        OrderService.CartItemRequest line = new OrderService.CartItemRequest();
+        line.setProductId(product.getId());
+        line.setQuantity(quantity);
+        return line;
+    }
+}
@@ -0,0 +1,143 @@
+package com.grocify.service;
+
+import com.grocify.entity.Order;
+import com.grocify.entity.OrderItem;
+import com.grocify.entity.Product;
+import com.grocify.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIntakePipelineTest {
+
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private final InventoryService inventoryService = mock(InventoryService.class);
+
+    private OrderIntakePipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        IdAllocator idAllocator = mock(IdAllocator.class);
+        AtomicLong ids = new AtomicLong();
+        when(idAllocator.next("orders")).thenAnswer(invocation -> ids.incrementAndGet());
+        when(idAllocator.reserve(anyString(), anyInt())).thenReturn(1L);
+        pipeline = new OrderIntakePipeline(100);
+        ReflectionTestUtils.setField(pipeline, "jdbcTemplate", mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(pipeline, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(pipeline, "idAllocator", idAllocator);
+        ReflectionTestUtils.setField(pipeline, "inventoryService", inventoryService);
+        ReflectionTestUtils.setField(pipeline, "productPopularity", mock(ProductPopularity.class));
+        ReflectionTestUtils.setField(pipeline, "groupSize", 50);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void ordersFailAndReleaseStockWhenNoTransactionCanBeStarted() {
+        doThrow(new CannotCreateTransactionException("Connection is not available"))
+                .when(transactionTemplate).executeWithoutResult(any());
+        start();
+
+        InventoryService.Reservation reservation = mock(InventoryService.Reservation.class);
+        Order order = order();
+        assertThat(pipeline.submit(order, List.of(reservation))).isTrue();
+
+        // The stock is released before the order is marked, so wait for the mark
+        awaitFailed(order);
+        verify(inventoryService, timeout(5000)).release(reservation);
+    }
+
+    @Test
+    void everyOrderOfAFailedGroupIsRetriedAlone() {
+        doThrow(new TransactionSystemException("Commit failed")).doNothing()
+                .when(transactionTemplate).executeWithoutResult(any());
+        List<InventoryService.Reservation> reservations = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            InventoryService.Reservation reservation = mock(InventoryService.Reservation.class);
+            Order order = order();
+            assertThat(pipeline.submit(order, List.of(reservation))).isTrue();
+            reservations.add(reservation);
+            orders.add(order);
+        }
+        start();
+
+        for (Order order : orders) {
+            awaitCommitted(order);
+        }
+        for (InventoryService.Reservation reservation : reservations) {
+            verify(inventoryService, never()).release(reservation);
+        }
+    }
+
+    @Test
+    void stopWritesQueuedOrdersAndRefusesNewOnes() throws InterruptedException {
+        doNothing().when(transactionTemplate).executeWithoutResult(any());
+        Order queued = order();
+        assertThat(pipeline.submit(queued, List.of())).isTrue();
+
+        pipeline.stop();
+
+        assertThat(pipeline.find(queued.getId())).isEmpty();
+        verify(transactionTemplate).executeWithoutResult(any());
+        assertThat(pipeline.submit(order(), List.of())).isFalse();
+    }
+
+    private void start() {
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        pipeline.start();
+    }
+
+    private void awaitCommitted(Order order) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pipeline.find(order.getId()).isPresent()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private void awaitFailed(Order order) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!pipeline.find(order.getId()).map(Order::getStatus).orElse("").equals(OrderIntakePipeline.STATUS_FAILED)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Order order() {
+        User user = new User();
+        user.setId(1L);
+        Product product = new Product("Milk", 50.0, null);
+        product.setId(1L);
+        Order order = new Order(user, new ArrayList<>(), 50.0);
+        order.getOrderItems().add(new OrderItem(order, product, 1, 50.0));
+        order.setOrderDate(LocalDateTime.now());
+        return order;
+    }
+}
@@ -0,0 +1,68 @@
+package com.grocify.service;
+
+import com.grocify.dto.CategoryNode;
+import com.grocify.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCategoryTreeTest {
+
+    private final ProductCategoryTree tree = new ProductCategoryTree();
+
+    private final ProductFacets facets = facets(tree);
+
+    @Test
+    void countsOnlyAvailableProductsAndAgreesWithTheFacets() {
+        Product apples = product(1L, "Fruits/Apples", true);
+        Product soldOutApples = product(2L, "Fruits/Apples", false);
+        Product pears = product(3L, "Fruits/Pears", false);
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, List.of(apples, soldOutApples, pears));
+        load(snapshot);
+
+        assertThat(tree.getCounts()).containsExactly(Map.entry("Fruits", 1), Map.entry("Fruits/Apples", 1));
+        assertThat(facets.getFacets().get("categories")).isEqualTo(tree.getCounts());
+        CategoryNode fruits = tree.getTree().get(0);
+        assertThat(fruits.getProductCount()).isEqualTo(1);
+        assertThat(fruits.getChildren()).extracting(CategoryNode::getPath).containsExactly("Fruits/Apples");
+
+        Product restockedPears = product(3L, "Fruits/Pears", true);
+        CatalogSnapshot next = snapshot.withProduct(2, restockedPears);
+        save(pears, restockedPears, next);
+        assertThat(tree.getCounts()).containsExactly(
+                Map.entry("Fruits", 2), Map.entry("Fruits/Apples", 1), Map.entry("Fruits/Pears", 1));
+
+        Product soldOut = product(1L, "Fruits/Apples", false);
+        save(apples, soldOut, next.withProduct(3, soldOut));
+        assertThat(tree.getCounts()).containsExactly(Map.entry("Fruits", 1), Map.entry("Fruits/Pears", 1));
+        assertThat(facets.getFacets().get("categories")).isEqualTo(tree.getCounts());
+    }
+
+    private void load(CatalogSnapshot snapshot) {
+        tree.onCatalogLoaded(snapshot);
+        facets.onCatalogLoaded(snapshot);
+    }
+
+    private void save(Product previous, Product saved, CatalogSnapshot snapshot) {
+        tree.onProductSaved(previous, saved, snapshot);
+        facets.onProductSaved(previous, saved, snapshot);
+    }
+
+    private static ProductFacets facets(ProductCategoryTree tree) {
+        ProductFacets facets = new ProductFacets();
+        ReflectionTestUtils.setField(facets, "categoryTree", tree);
+        return facets;
+    }
+
+    private static Product product(Long id, String category, boolean available) {
+        Product product = new Product("Product " + id, 40.0, null);
+        product.setId(id);
+        product.setCategory(category);
+        product.setAvailable(available);
+        return product;
+    }
+}
@@ -0,0 +1,164 @@
+package com.grocify.service;
+
+import com.grocify.dto.ProductChange;
+import com.grocify.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockConstruction;
+
+/**
+ * Subscribers are mocked emitters that record what the feed's sender threads do with them,
+ * so the assertions never verify a mock while another thread is calling it.
+ */
+class ProductChangeFeedTest {
+
+    private static final int CLIENT_BUFFER_SIZE = 4;
+
+    private static final String COMPLETED = "completed";
+
+    private final ProductChangeFeed feed = new ProductChangeFeed();
+
+    private CatalogSnapshot catalog;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(feed, "bufferSize", 100);
+        ReflectionTestUtils.setField(feed, "clientBufferSize", CLIENT_BUFFER_SIZE);
+        ReflectionTestUtils.setField(feed, "senderThreads", 2);
+        feed.startSenders();
+        catalog = CatalogSnapshot.of(1, List.of(product(1L, "Milk 1L", 60.0), product(2L, "Bread", 40.0)));
+        feed.onCatalogLoaded(catalog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stopSenders();
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWithoutHoldingUpOthers() throws Exception {
+        // A client that stopped reading: its blocking write does not return until the test lets it
+        CountDownLatch stuck = new CountDownLatch(1);
+        Client slow = subscribe("1", stuck);
+        Client fast = subscribe("1", null);
+
+        // The slow client's sender takes the first write and blocks on it
+        save(product(1L, "Milk 1L", 61.0));
+        assertThat(fast.next()).contains("event:change");
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The fast client gets every write while the slow one's queue fills up
+        int writes = CLIENT_BUFFER_SIZE * 3;
+        for (int i = 1; i < writes; i++) {
+            save(product(1L, "Milk 1L", 61.0 + i));
+            assertThat(fast.next()).contains("event:change").contains("id:" + catalog.getVersion());
+        }
+        stuck.countDown();
+
+        int delivered = 0;
+        String event;
+        while (!(event = slow.next()).equals(COMPLETED)) {
+            assertThat(event).contains("event:change");
+            delivered++;
+        }
+        // The write that was stuck; the queued ones were thrown away with the connection
+        assertThat(delivered).isEqualTo(1);
+        assertThat(fast.events).isEmpty();
+    }
+
+    @Test
+    void reloadIsSentAsTheChangesBetweenTheSnapshots() throws Exception {
+        Client live = subscribe("1", null);
+
+        // Another node changed a price and added a product
+        feed.onCatalogLoaded(CatalogSnapshot.of(4, List.of(product(1L, "Milk 1L", 65.0), product(2L, "Bread", 40.0),
+                product(3L, "Butter 200g", 90.0))));
+
+        assertThat(live.next()).contains("event:change").contains("productId:1").doesNotContain("id:");
+        assertThat(live.next()).contains("event:change").contains("productId:3").contains("id:4");
+
+        // A client that saw version 1 on any node catches up from the history
+        Client resumed = subscribe("1", null);
+        assertThat(resumed.next()).contains("productId:1");
+        assertThat(resumed.next()).contains("productId:3").contains("id:4");
+    }
+
+    @Test
+    void clientOlderThanTheHistoryIsReset() throws Exception {
+        Client stale = subscribe("0", null);
+
+        assertThat(stale.next()).contains("event:reset").contains("id:1");
+    }
+
+    private Client subscribe(String lastEventId, CountDownLatch blockSends) {
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        CountDownLatch sending = new CountDownLatch(1);
+        try (MockedConstruction<SseEmitter> emitters = mockConstruction(SseEmitter.class, (emitter, context) -> {
+            doAnswer(invocation -> {
+                sending.countDown();
+                if (blockSends != null) {
+                    blockSends.await(10, TimeUnit.SECONDS);
+                }
+                events.add(render(invocation.getArgument(0)));
+                return null;
+            }).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+            doAnswer(invocation -> events.add(COMPLETED)).when(emitter).complete();
+        })) {
+            feed.subscribe(lastEventId);
+        }
+        return new Client(events, sending);
+    }
+
+    private void save(Product product) {
+        Product previous = catalog.getProduct(product.getId()).orElse(null);
+        catalog = catalog.withProduct(catalog.getVersion() + 1, product);
+        feed.onProductSaved(previous, product, catalog);
+    }
+
+    private static String render(SseEmitter.SseEventBuilder event) {
+        StringBuilder text = new StringBuilder();
+        for (ResponseBodyEmitter.DataWithMediaType part : event.build()) {
+            text.append(part.getData() instanceof ProductChange change ? "productId:" + change.getProductId() : part.getData());
+        }
+        return text.toString();
+    }
+
+    private static Product product(Long id, String name, double price) {
+        Product product = new Product(name, price, null);
+        product.setId(id);
+        return product;
+    }
+
+    private static final class Client {
+        private final BlockingQueue<String> events;
+
+        // Released when a sender thread first calls send
+        private final CountDownLatch sending;
+
+        private Client(BlockingQueue<String> events, CountDownLatch sending) {
+            this.events = events;
+            this.sending = sending;
+        }
+
+        private String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("next event").isNotNull();
+            return event;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFuzzyIndexTest {
+
+    private static final int PRODUCTS = 3000;
+
+    private final ProductPopularity popularity = new ProductPopularity();
+
+    private final ProductFuzzyIndex index = index(popularity);
+
+    @Test
+    void nearerMatchesRankFirstThenMorePopularOnes() {
+        index.onCatalogLoaded(CatalogSnapshot.of(1, List.of(
+                product(1L, "Cherry Tomatoes"), product(2L, "Tomatoes"), product(3L, "Cherry Tomatos"),
+                product(4L, "Chery Tomatoes"), product(5L, "Potatoes"))));
+        popularity.recordOrdered(3L, 5);
+        popularity.recordOrdered(2L, 1);
+
+        assertThat(index.search("tomatoes", 10)).containsExactly(2L, 1L, 4L, 3L, 5L);
+        assertThat(index.search("cherry tomatoes", 10)).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    void renamedProductsLeaveNoDeadWordsBehind() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            products.add(product(id, word("old", id) + " Tomatoes"));
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, products);
+        index.onCatalogLoaded(snapshot);
+
+        for (Product old : products) {
+            index.onProductSaved(old, product(old.getId(), word("new", old.getId()) + " Tomatoes"), snapshot);
+        }
+
+        Map<?, ?> productsByWord = (Map<?, ?>) ReflectionTestUtils.getField(index, "productsByWord");
+        assertThat(productsByWord).hasSize(PRODUCTS + 1);
+        // Rebuilt once the renamed words were a quarter of the tree, so few of them are left
+        int treeSize = (int) ReflectionTestUtils.getField(index, "treeSize");
+        assertThat(treeSize).isLessThan(PRODUCTS * 3 / 2);
+        assertThat((int) ReflectionTestUtils.getField(index, "deadWords")).isEqualTo(treeSize - productsByWord.size());
+
+        assertThat(index.search(word("old", 42) + " tomatos", 10)).isEmpty();
+        assertThat(index.search(word("new", 42) + " tomatos", 10)).startsWith(42L);
+    }
+
+    @Test
+    void wordBackInUseIsNotCountedAsDead() {
+        Product milk = product(1L, "Buttermilk");
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, List.of(milk));
+        index.onCatalogLoaded(snapshot);
+
+        Product renamed = product(1L, "Lassi");
+        index.onProductSaved(milk, renamed, snapshot);
+        index.onProductSaved(renamed, milk, snapshot);
+
+        assertThat((int) ReflectionTestUtils.getField(index, "deadWords")).isEqualTo(1);
+        assertThat(index.search("buttermlik", 10)).containsExactly(1L);
+        assertThat(index.search("lasi", 10)).isEmpty();
+    }
+
+    private static ProductFuzzyIndex index(ProductPopularity popularity) {
+        ReflectionTestUtils.setField(popularity, "loaded", true);
+        ProductFuzzyIndex index = new ProductFuzzyIndex();
+        ReflectionTestUtils.setField(index, "popularity", popularity);
+        return index;
+    }
+
+    // Distinct letters-only words, since words with digits are not indexed
+    private static String word(String prefix, long id) {
+        StringBuilder word = new StringBuilder(prefix);
+        for (long rest = id; rest > 0; rest /= 26) {
+            word.append((char) ('a' + rest % 26));
+        }
+        return word.toString();
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product(name, 10.0, null);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,96 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductPriceIndexTest {
+
+    private static final int PRODUCTS = 2000;
+
+    private static final int PAGE_SIZE = 7;
+
+    private final ProductPriceIndex index = new ProductPriceIndex();
+
+    private final CatalogSnapshot snapshot = catalog();
+
+    @Test
+    void pagesOfABroadFilterWalkThePriceOrder() {
+        RoaringBitmap matches = new RoaringBitmap();
+        for (int id = 1; id <= PRODUCTS; id += 2) {
+            matches.add(id);
+        }
+        assertPagesInPriceOrder(matches, false);
+        assertPagesInPriceOrder(matches, true);
+    }
+
+    @Test
+    void pagesOfANarrowFilterRankTheMatches() {
+        RoaringBitmap matches = RoaringBitmap.bitmapOf(3, 17, 18, 19, 250, 251, 999, 1000, 1500, 1999, 2000);
+        assertPagesInPriceOrder(matches, false);
+        assertPagesInPriceOrder(matches, true);
+    }
+
+    @Test
+    void writesMoveProductsInThePriceOrder() {
+        Product cheapest = product(PRODUCTS + 1L, 0.5);
+        CatalogSnapshot next = snapshot.withProduct(2, cheapest);
+        index.onProductSaved(null, cheapest, next);
+
+        RoaringBitmap all = new RoaringBitmap();
+        all.add(1L, PRODUCTS + 2L);
+        assertThat(index.page(all, next, null, null, 1, false)).containsExactly(cheapest.getId());
+
+        Product raised = product(cheapest.getId(), 1000.0);
+        index.onProductSaved(cheapest, raised, next.withProduct(3, raised));
+        assertThat(index.page(all, next, null, null, 1, true)).containsExactly(raised.getId());
+    }
+
+    private void assertPagesInPriceOrder(RoaringBitmap matches, boolean descending) {
+        Comparator<Product> order = Comparator.comparing(Product::getPrice).thenComparing(Product::getId);
+        List<Long> expected = new ArrayList<>();
+        snapshot.getProducts().stream()
+                .filter(product -> matches.contains(product.getId().intValue()))
+                .sorted(descending ? order.reversed() : order)
+                .forEach(product -> expected.add(product.getId()));
+
+        List<Long> paged = new ArrayList<>();
+        Double afterPrice = null;
+        Long afterId = null;
+        while (true) {
+            List<Long> page = index.page(matches, snapshot, afterPrice, afterId, PAGE_SIZE, descending);
+            paged.addAll(page);
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            afterId = page.get(page.size() - 1);
+            afterPrice = snapshot.getProduct(afterId).orElseThrow().getPrice();
+        }
+        assertThat(paged).isEqualTo(expected);
+    }
+
+    private CatalogSnapshot catalog() {
+        Random random = new Random(7);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            // Few distinct prices, so many pages end inside a run of equal prices
+            products.add(product(id, 10 + random.nextInt(40) * 2.5));
+        }
+        CatalogSnapshot catalog = CatalogSnapshot.of(1, products);
+        index.onCatalogLoaded(catalog);
+        return catalog;
+    }
+
+    private static Product product(Long id, double price) {
+        Product product = new Product("Product " + id, price, null);
+        product.setId(id);
+        return product;
+    }
+}
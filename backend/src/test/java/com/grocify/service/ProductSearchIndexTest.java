@@ -0,0 +1,71 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void candidatesHoldingEveryGramButNotTheWordAreDropped() {
+        CatalogSnapshot snapshot = snapshot(
+                product(1, "Matcha Potato Crisps", "Snacks & Nuts", "Green tea flavoured crisps"),
+                product(2, "Fresh Tomatoes (1kg)", "Vegetables", "Fresh tomatoes from our Vegetables range"));
+        ProductSearchIndex index = index(snapshot);
+
+        assertThat(ids(index.search("mato", null, 10, snapshot))).containsExactly(2L);
+        assertThat(ids(index.search("potato mato", null, 10, snapshot))).isEmpty();
+    }
+
+    @Test
+    void nameMatchesRankAboveDescriptionMatches() {
+        CatalogSnapshot snapshot = snapshot(
+                product(1, "Cheese Slices", "Dairy & Eggs", "Processed cheese"),
+                product(2, "Brown Bread", "Bakery", "Goes well with cheese"),
+                product(3, "Cheddar", "Dairy & Eggs", "Aged cheese block"));
+        ProductSearchIndex index = index(snapshot);
+
+        assertThat(ids(index.search("cheese", null, 10, snapshot))).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void pagesContinueAfterTheCursor() {
+        CatalogSnapshot snapshot = snapshot(
+                product(1, "Tomato Ketchup", "Pantry & Staples", null),
+                product(2, "Cherry Tomatoes", "Vegetables", null),
+                product(3, "Tomato Puree", "Pantry & Staples", null),
+                product(4, "Potato Chips", "Snacks & Nuts", null));
+        ProductSearchIndex index = index(snapshot);
+
+        List<ProductSearchIndex.SearchHit> first = index.search("tomato", null, 2, snapshot);
+        List<ProductSearchIndex.SearchHit> second = index.search("tomato", first.get(1), 2, snapshot);
+
+        assertThat(ids(first)).containsExactly(1L, 2L);
+        assertThat(ids(second)).containsExactly(3L);
+    }
+
+    private static ProductSearchIndex index(CatalogSnapshot snapshot) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.onCatalogLoaded(snapshot);
+        return index;
+    }
+
+    private static CatalogSnapshot snapshot(Product... products) {
+        return CatalogSnapshot.of(1, List.of(products));
+    }
+
+    private static Product product(long id, String name, String category, String description) {
+        Product product = new Product(name, 10.0, null);
+        product.setId(id);
+        product.setCategory(category);
+        product.setDescription(description);
+        return product;
+    }
+
+    private static List<Long> ids(List<ProductSearchIndex.SearchHit> hits) {
+        return hits.stream().map(ProductSearchIndex.SearchHit::getProductId).toList();
+    }
+}
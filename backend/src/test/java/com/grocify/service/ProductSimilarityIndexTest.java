@@ -0,0 +1,58 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSimilarityIndexTest {
+
+    private final ProductSimilarityIndex index = index();
+
+    @Test
+    void unavailableProductsDoNotCrowdOutAvailableOnes() {
+        // More unavailable copies than a bucket is read for, all with lower ids than the available one
+        List<Product> products = new ArrayList<>();
+        products.add(product(1L, true));
+        for (long id = 2; id <= 50; id++) {
+            products.add(product(id, false));
+        }
+        Product available = product(100L, true);
+        products.add(available);
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1, products);
+        index.onCatalogLoaded(snapshot);
+
+        assertThat(index.similar(products.get(0), snapshot, 8)).containsExactly(100L);
+
+        Product restocked = product(2L, true);
+        CatalogSnapshot next = snapshot.withProduct(2, restocked);
+        index.onProductSaved(products.get(1), restocked, next);
+        assertThat(index.similar(products.get(0), next, 8)).containsExactly(2L, 100L);
+
+        Product soldOut = product(100L, false);
+        CatalogSnapshot last = next.withProduct(3, soldOut);
+        index.onProductSaved(available, soldOut, last);
+        assertThat(index.similar(products.get(0), last, 8)).containsExactly(2L);
+    }
+
+    private static ProductSimilarityIndex index() {
+        ProductPopularity popularity = new ProductPopularity();
+        ReflectionTestUtils.setField(popularity, "loaded", true);
+        ProductSimilarityIndex index = new ProductSimilarityIndex();
+        ReflectionTestUtils.setField(index, "popularity", popularity);
+        return index;
+    }
+
+    private static Product product(Long id, boolean available) {
+        Product product = new Product("Organic Cherry Tomatoes", 80.0, null);
+        product.setId(id);
+        product.setDescription("Organic cherry tomatoes from our Vegetables range");
+        product.setCategory("Vegetables");
+        product.setAvailable(available);
+        return product;
+    }
+}
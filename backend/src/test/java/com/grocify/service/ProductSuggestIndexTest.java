@@ -0,0 +1,101 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSuggestIndexTest {
+
+    private final ProductPopularity popularity = new ProductPopularity();
+
+    private final ProductSuggestIndex index = new ProductSuggestIndex();
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(popularity, "loaded", true);
+        ReflectionTestUtils.setField(index, "popularity", popularity);
+        snapshot = CatalogSnapshot.of(1, List.of(
+                product(1L, "Organic Bananas (1kg)", "Fruits"),
+                product(2L, "Organic Apples (1kg)", "Fruits"),
+                product(3L, "Orange Juice (1L)", "Beverages"),
+                product(4L, "Oregano", "Pantry & Staples"),
+                product(5L, "Brown Bread", "Bakery"),
+                product(6L, "Organic Milk (1L)", "Dairy & Eggs")));
+        index.onCatalogLoaded(snapshot);
+    }
+
+    @Test
+    void suggestionsAreRankedByPopularityThenId() {
+        popularity.recordOrdered(6L, 5);
+        popularity.recordOrdered(3L, 2);
+        popularity.recordOrdered(5L, 9);
+
+        // Equal scores fall back to the id; the category "Fruits" does not start with "or"
+        assertThat(index.suggest("or", 10)).containsExactly(6L, 3L, 1L, 2L, 4L);
+        assertThat(index.suggest("organic", 10)).containsExactly(6L, 1L, 2L);
+        assertThat(index.suggest("organic", 2)).containsExactly(6L, 1L);
+        assertThat(index.suggest("brown b", 10)).containsExactly(5L);
+        assertThat(index.suggest("quinoa", 10)).isEmpty();
+    }
+
+    @Test
+    void commonAndRarePrefixesRankTheSame() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            products.add(product(id, (id % 500 == 0 ? "Fresh " : "Organic ") + "Produce " + id, "Vegetables"));
+        }
+        index.onCatalogLoaded(CatalogSnapshot.of(2, products));
+        for (long id = 1; id <= 10; id++) {
+            popularity.recordOrdered(id * 7, 1 + (int) (id % 3));
+        }
+        popularity.recordOrdered(1000L, 2);
+
+        // Far more matches than ranked products: walks the ranking, then the rest follow by id
+        assertThat(index.suggest("org", 20)).isEqualTo(expected(products, "Organic", 20));
+        // Few matches: ranked directly
+        assertThat(index.suggest("fresh", 20)).isEqualTo(expected(products, "Fresh", 20));
+    }
+
+    @Test
+    void writesAreVisibleToTheNextSuggestion() {
+        assertThat(index.suggest("ba", 10)).containsExactly(1L, 5L);
+        assertThat(index.suggest("banan", 10)).containsExactly(1L);
+
+        Product renamed = product(1L, "Plantains (1kg)", "Fruits");
+        index.onProductSaved(snapshot.getProduct(1L).orElseThrow(), renamed, snapshot.withProduct(2, renamed));
+        assertThat(index.suggest("ba", 10)).containsExactly(5L);
+        assertThat(index.suggest("banan", 10)).isEmpty();
+        assertThat(index.suggest("pl", 10)).containsExactly(1L);
+
+        index.onProductDeleted(snapshot.getProduct(5L).orElseThrow(), snapshot.withoutProduct(3, 5L));
+        assertThat(index.suggest("ba", 10)).isEmpty();
+        assertThat(index.suggest("brown", 10)).isEmpty();
+    }
+
+    private List<Long> expected(List<Product> products, String word, int limit) {
+        return products.stream()
+                .filter(product -> product.getName().startsWith(word))
+                .sorted((a, b) -> {
+                    int byScore = Long.compare(popularity.getScore(b.getId()), popularity.getScore(a.getId()));
+                    return byScore != 0 ? byScore : a.getId().compareTo(b.getId());
+                })
+                .limit(limit)
+                .map(Product::getId)
+                .toList();
+    }
+
+    private static Product product(Long id, String name, String category) {
+        Product product = new Product(name, 10.0, null);
+        product.setId(id);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,81 @@
+package com.grocify.service;
+
+import com.grocify.entity.Product;
+import com.grocify.util.UnitPriceParser;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductUnitPriceIndexTest {
+
+    private static final int PRODUCTS = 2000;
+
+    private static final int PAGE_SIZE = 7;
+
+    private final ProductUnitPriceIndex index = new ProductUnitPriceIndex();
+
+    private final CatalogSnapshot snapshot = catalog();
+
+    @Test
+    void pagesOfABroadFilterWalkTheUnitPriceOrder() {
+        RoaringBitmap matches = new RoaringBitmap();
+        matches.add(1L, PRODUCTS + 1L);
+        assertPagesInUnitPriceOrder(matches, false);
+        assertPagesInUnitPriceOrder(matches, true);
+    }
+
+    @Test
+    void pagesOfANarrowFilterRankTheMatches() {
+        // A small category, including products sold by the litre that the unit leaves out
+        RoaringBitmap matches = RoaringBitmap.bitmapOf(3, 4, 17, 18, 19, 250, 251, 999, 1000, 1500, 1999, 2000);
+        assertPagesInUnitPriceOrder(matches, false);
+        assertPagesInUnitPriceOrder(matches, true);
+    }
+
+    private void assertPagesInUnitPriceOrder(RoaringBitmap matches, boolean descending) {
+        Comparator<Product> order = Comparator.comparing(Product::getUnitPrice).thenComparing(Product::getId);
+        List<Long> expected = new ArrayList<>();
+        snapshot.getProducts().stream()
+                .filter(product -> matches.contains(product.getId().intValue()))
+                .filter(product -> UnitPriceParser.UNIT_KG.equals(product.getUnitType()))
+                .sorted(descending ? order.reversed() : order)
+                .forEach(product -> expected.add(product.getId()));
+
+        List<Long> paged = new ArrayList<>();
+        Double afterUnitPrice = null;
+        Long afterId = null;
+        while (true) {
+            List<Long> page = index.page(matches, snapshot, UnitPriceParser.UNIT_KG, afterUnitPrice, afterId,
+                    PAGE_SIZE, descending);
+            paged.addAll(page);
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            afterId = page.get(page.size() - 1);
+            afterUnitPrice = snapshot.getProduct(afterId).orElseThrow().getUnitPrice();
+        }
+        assertThat(paged).isEqualTo(expected);
+    }
+
+    private CatalogSnapshot catalog() {
+        Random random = new Random(7);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            Product product = new Product("Product " + id, 10.0, null);
+            product.setId(id);
+            // Every fourth product is sold by the litre; few distinct unit prices, so pages end inside ties
+            product.setUnitType(id % 4 == 0 ? UnitPriceParser.UNIT_LITRE : UnitPriceParser.UNIT_KG);
+            product.setUnitPrice(20 + random.nextInt(30) * 5.0);
+            products.add(product);
+        }
+        CatalogSnapshot catalog = CatalogSnapshot.of(1, products);
+        index.onCatalogLoaded(catalog);
+        return catalog;
+    }
+}
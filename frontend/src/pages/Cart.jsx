@@ -109,7 +109,12 @@ const Cart = () => {
       }
     } catch (error) {
       console.error('Error placing order:', error);
-      alert('Failed to place order. Please try again.');
+      const lineErrors = error.response?.data?.errors;
+      if (lineErrors) {
+        alert('Some items could not be ordered:\n' + lineErrors.map(lineError => lineError.message).join('\n'));
+      } else {
+        alert('Failed to place order. Please try again.');
+      }
     } finally {
       setPlacingOrder(false);
     }
@@ -11,9 +11,11 @@ const ProductDetail = () => {
   const [quantity, setQuantity] = useState(1)
   const [showToast, setShowToast] = useState(false)
   const [toastMessage, setToastMessage] = useState('')
+  const [similarProducts, setSimilarProducts] = useState([])
 
   useEffect(() => {
     fetchProduct()
+    fetchSimilarProducts()
   }, [id])
 
   const fetchProduct = async () => {
@@ -30,6 +32,16 @@ const ProductDetail = () => {
     }
   }
 
+  const fetchSimilarProducts = async () => {
+    try {
+      const response = await axios.get(`http://localhost:8081/api/products/${id}/similar?limit=4`)
+      setSimilarProducts(response.data)
+    } catch (err) {
+      setSimilarProducts([])
+      console.error('Error fetching similar products:', err)
+    }
+  }
+
   const showToastMessage = (message) => {
     setToastMessage(message)
     setShowToast(true)
@@ -193,6 +205,38 @@ const ProductDetail = () => {
             </div>
           </div>
         </div>
+
+        {similarProducts.length > 0 && (
+          <div className="similar-products">
+            <h2>You may also like</h2>
+            <div className="products-grid">
+              {similarProducts.map(similar => (
+                <div key={similar.id} className="product-card">
+                  <div className="product-image">
+                    <img
+                      src={similar.imageUrl}
+                      alt={similar.name}
+                      onError={(e) => {
+                        e.target.src = 'https://via.placeholder.com/300x200?text=No+Image';
+                        e.target.onerror = null;
+                      }}
+                    />
+                  </div>
+                  <div className="product-info">
+                    <div className="product-category-tag">{similar.category}</div>
+                    <h3 className="product-name">{similar.name}</h3>
+                    <div className="product-price">₹{similar.price}</div>
+                    <div className="product-actions">
+                      <Link to={`/product/${similar.id}`} className="view-button">
+                        View Details
+                      </Link>
+                    </div>
+                  </div>
+                </div>
+              ))}
+            </div>
+          </div>
+        )}
       </div>
     </div>
   )